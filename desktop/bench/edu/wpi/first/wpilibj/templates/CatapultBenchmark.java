@@ -0,0 +1,49 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Catapult.idle() in each firing state, with the encoder, clock and
+ * sensor snapshot held so that the catapult stays in the state being measured
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatapultBenchmark
+{
+	@Param({"0", "1", "2", "3", "4"})
+	public int state;
+
+	Catapult catapult;
+	SensorSnapshot sensors = new SensorSnapshot();
+
+	@Setup
+	public void setup()
+	{
+		catapult = new RobotController(new SimHardware()).catapult;
+		catapult.setMotorPower(1.0);
+		catapult.setStoppingPoint(140);
+	}
+
+	@Benchmark
+	public void idle()
+	{
+		catapult.states.reset(state);
+		catapult.idle(sensors);
+	}
+}
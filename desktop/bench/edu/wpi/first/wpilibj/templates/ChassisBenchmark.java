@@ -0,0 +1,56 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Chassis.idle() with a stick that moves every loop, which maps and
+ * mixes the inputs each time, against one held still, which only compares
+ * them with the inputs last mixed. The difference is what skipping the mixing
+ * for an unchanged stick saves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChassisBenchmark
+{
+	Chassis chassis;
+	double m_x;
+
+	@Setup
+	public void setup()
+	{
+		chassis = new RobotController(new SimHardware()).chassis;
+	}
+
+	@Benchmark
+	public void idleCached()
+	{
+		// The inputs match the ones last mixed after the first call, so only
+		// the comparison runs
+		chassis.setJoystickData(0, 0, 0);
+		chassis.idle();
+	}
+
+	@Benchmark
+	public void idleMoving()
+	{
+		// Changes the stick every call so the JIT can't fold the math away
+		m_x = m_x > 0.9 ? -0.9 : m_x + 0.01;
+		chassis.setJoystickData(m_x, -0.5, 0.2);
+		chassis.idle();
+	}
+}
@@ -0,0 +1,87 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Collector.idle() in each mode and automatic substate, with a
+ * sensor snapshot filled in by hand so that the collector stays in the state
+ * being measured
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectorBenchmark
+{
+	@Param({"lowering", "waiting", "waitForBall", "raising", "disabled",
+		"manualRoller", "manualRaise"})
+	public String state;
+
+	Collector collector;
+	SensorSnapshot sensors = new SensorSnapshot();
+	int m_mode;
+	int m_substate;
+
+	@Setup
+	public void setup()
+	{
+		collector = new RobotController(new SimHardware()).collector;
+		// Arm off the limit switch and no ball, so no substate moves on
+		sensors.m_lowerLimit = true;
+		sensors.m_ballSensor = 0;
+		collector.setAutomaticRollerPower(1.0);
+		m_mode = Collector.CollectorMode.automatic;
+		if(state.equals("lowering"))
+		{
+			m_substate = Collector.CollectorAutoSubstate.lowering;
+		}
+		else if(state.equals("waiting"))
+		{
+			m_substate = Collector.CollectorAutoSubstate.waiting;
+		}
+		else if(state.equals("waitForBall"))
+		{
+			m_substate = Collector.CollectorAutoSubstate.waitForBall;
+		}
+		else if(state.equals("raising"))
+		{
+			m_substate = Collector.CollectorAutoSubstate.raising;
+		}
+		else if(state.equals("disabled"))
+		{
+			m_mode = Collector.CollectorMode.disabled;
+		}
+		else if(state.equals("manualRoller"))
+		{
+			m_mode = Collector.CollectorMode.manualRoller;
+		}
+		else
+		{
+			m_mode = Collector.CollectorMode.manualRaise;
+			collector.manualRaise(1);
+		}
+	}
+
+	@Benchmark
+	public void idle()
+	{
+		// The clock doesn't move, so the timed substates never end
+		collector.modes.reset(m_mode);
+		collector.substates.reset(m_substate);
+		collector.idle(sensors);
+	}
+}
@@ -0,0 +1,46 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one step of the GyroDrive PI loop
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GyroDriveBenchmark
+{
+	SimHardware hardware;
+	GyroDrive gyroDrive;
+	int m_gyroValue;
+
+	@Setup
+	public void setup()
+	{
+		hardware = new SimHardware();
+		gyroDrive = new GyroDrive(hardware.getClock());
+	}
+
+	@Benchmark
+	public double getAdjustedRotationValue()
+	{
+		hardware.getClock().advance(0.02);
+		m_gyroValue = m_gyroValue > 30 ? -30 : m_gyroValue + 1;
+		return gyroDrive.getAdjustedRotationValue(0.5, 0, 0, 0.02, 0.002, 40,
+				m_gyroValue);
+	}
+}
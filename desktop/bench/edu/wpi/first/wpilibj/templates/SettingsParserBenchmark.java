@@ -0,0 +1,51 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Measures parsing the whole settings file the way Settings.load does, from
+ * memory instead of the cRIO's flash
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingsParserBenchmark
+{
+	ByteArrayInputStream input;
+	SettingsParser parser;
+	double[] values;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		input = new ByteArrayInputStream(java.nio.file.Files.readAllBytes(
+				java.nio.file.Paths.get("settings.txt")));
+		parser = new SettingsParser(Settings.Key.names);
+		values = new double[Settings.Key.count];
+	}
+
+	@Benchmark
+	public double parse() throws IOException
+	{
+		input.reset();
+		parser.parse(input, values, "settings.txt");
+		return values[Settings.Key.spinThreshold];
+	}
+}
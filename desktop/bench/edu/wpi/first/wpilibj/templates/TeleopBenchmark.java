@@ -0,0 +1,52 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole teleop loop, with the gyro assist on and the driver
+ * strafing and holding the collector's run button
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeleopBenchmark
+{
+	SimHardware hardware;
+	RobotController controller;
+
+	@Setup
+	public void setup()
+	{
+		hardware = new SimHardware();
+		hardware.setFile("settings.txt", "rotationPConstant=0.02\n"
+				+ "rotationIConstant=0.002\nspinThreshold=40\n");
+		controller = new RobotController(hardware);
+		controller.robotInit();
+		controller.teleopInit();
+		hardware.getDriverInput().setDigitalIn(2, true);
+		hardware.getDriverInput().setAxis(1, 0.6);
+		hardware.getDriverInput().setButton(2, true);
+		hardware.getAnalogInput(RobotController.GYROSENSORPORT).set(480);
+	}
+
+	@Benchmark
+	public void teleopPeriodic()
+	{
+		hardware.getClock().advance(0.02);
+		controller.teleopPeriodic();
+	}
+}
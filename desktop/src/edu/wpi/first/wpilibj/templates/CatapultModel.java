@@ -0,0 +1,108 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Models the catapult arm driven by its two motors, the position of the arm is
+ * measured in encoder "clicks" from the arm's resting point
+ */
+public class CatapultModel
+{
+	SimHardware.SimMotor motorOne, motorTwo;
+	SimHardware.SimEncoder encoder;
+
+	// Speed of the arm in clicks per second at full power with no load
+	double m_freeSpeed = 1200;
+	// Time in seconds for the arm to reach the speed the motors are driving at
+	double m_timeConstant = 0.03;
+	// Acceleration of the arm caused by gravity in clicks per second squared
+	double m_gravity = 3000;
+	// The position at which the arm hits the frame at the top of its motion
+	double m_upperStop = 250;
+	// The position at which the ball leaves the arm
+	double m_releasePoint = 60;
+
+	double m_position;
+	double m_velocity;
+	double m_peakPosition;
+	boolean m_loaded;
+	int m_shots;
+	double m_lastShotSpeed;
+
+	/**
+	 * @param hardware The simulated hardware the catapult's motors and encoder
+	 * were created on
+	 */
+	CatapultModel(SimHardware hardware)
+	{
+		motorOne = hardware.getMotor(RobotController.CATAPULTTALONONEPORT);
+		motorTwo = hardware.getMotor(RobotController.CATAPULTTALONTWOPORT);
+		encoder = hardware.getEncoder(RobotController.CATAPULTENCODERPORTA);
+	}
+
+	/**
+	 * Moves the arm forward in time and updates the encoder
+	 *
+	 * @param dt The amount of time to simulate in seconds
+	 */
+	void step(double dt)
+	{
+		double power = (motorOne.get() + motorTwo.get()) / 2;
+		double acceleration = (power * m_freeSpeed - m_velocity) / m_timeConstant
+				- m_gravity;
+		m_velocity += acceleration * dt;
+		m_position += m_velocity * dt;
+		if(m_position <= 0)
+		{
+			m_position = 0;
+			if(m_velocity < 0)
+			{
+				m_velocity = 0;
+			}
+		}
+		else if(m_position >= m_upperStop)
+		{
+			m_position = m_upperStop;
+			if(m_velocity > 0)
+			{
+				m_velocity = 0;
+			}
+		}
+		if(m_position > m_peakPosition)
+		{
+			m_peakPosition = m_position;
+		}
+		// The ball leaves the arm once the arm swings past the release point
+		if(m_loaded && m_position >= m_releasePoint)
+		{
+			m_loaded = false;
+			m_shots++;
+			m_lastShotSpeed = m_velocity;
+		}
+		encoder.setPosition((int) m_position);
+		encoder.setRate(m_velocity);
+	}
+
+	/**
+	 * Places a ball into the catapult, the collector does this when it raises
+	 */
+	void load()
+	{
+		m_loaded = true;
+	}
+
+	/**
+	 * @return True if the arm is at rest at the bottom of its motion
+	 */
+	boolean isLowered()
+	{
+		return m_position < 2;
+	}
+
+	/**
+	 * Clears the highest position reached, so the next shot's overshoot can
+	 * be measured
+	 */
+	void resetPeak()
+	{
+		m_peakPosition = m_position;
+	}
+}
@@ -0,0 +1,82 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Models the mecanum drivetrain and the gyro. The heading is measured in
+ * degrees clockwise and the position in meters on the field.
+ */
+public class ChassisModel
+{
+	SimHardware.SimMotor leftFront, leftRear, rightFront, rightRear;
+	SimHardware.SimAnalog gyroSensor;
+
+	// Forward speed in meters per second at full power
+	double m_maxSpeed = 3.5;
+	// Strafing is slower than driving forward on mecanum wheels
+	double m_strafeEfficiency = 0.8;
+	// Rotation speed in degrees per second at full power
+	double m_maxRotationSpeed = 360;
+	// Time in seconds for the robot to reach the speed it is driving at
+	double m_timeConstant = 0.15;
+	/* Rotation in degrees per second caused by strafing at full power, from
+	 the robot's weight not being centered over the wheels */
+	double m_strafeRotation = 45;
+	// Gyro value when the robot is not rotating
+	double m_gyroCenter = 476;
+	// Change in the gyro value for each degree per second of rotation
+	double m_gyroCountsPerDegree = 0.5;
+
+	double m_forwardSpeed;
+	double m_strafeSpeed;
+	double m_rotationSpeed;
+	double m_heading;
+	double m_x;
+	double m_y;
+
+	/**
+	 * @param hardware The simulated hardware the chassis' motors and gyro were
+	 * created on
+	 */
+	ChassisModel(SimHardware hardware)
+	{
+		leftFront = hardware.getMotor(RobotController.LEFTFRONTTALONPORT);
+		leftRear = hardware.getMotor(RobotController.LEFTREARTALONPORT);
+		rightFront = hardware.getMotor(RobotController.RIGHTFRONTTALONPORT);
+		rightRear = hardware.getMotor(RobotController.RIGHTREARTALONPORT);
+		gyroSensor = hardware.getAnalogInput(RobotController.GYROSENSORPORT);
+	}
+
+	/**
+	 * Moves the robot forward in time and updates the gyro
+	 *
+	 * @param dt The amount of time to simulate in seconds
+	 */
+	void step(double dt)
+	{
+		// The left side motors are inverted, so undo it to get wheel speeds
+		double lf = -leftFront.get();
+		double lr = -leftRear.get();
+		double rf = rightFront.get();
+		double rr = rightRear.get();
+		double forward = (lf + rf + lr + rr) / 4;
+		double strafe = (lf - rf - lr + rr) / 4;
+		double rotation = (lf - rf + lr - rr) / 4;
+		double targetRotation = rotation * m_maxRotationSpeed
+				+ strafe * m_strafeRotation;
+		m_forwardSpeed += (forward * m_maxSpeed - m_forwardSpeed) * dt
+				/ m_timeConstant;
+		m_strafeSpeed += (strafe * m_maxSpeed * m_strafeEfficiency
+				- m_strafeSpeed) * dt / m_timeConstant;
+		m_rotationSpeed += (targetRotation - m_rotationSpeed) * dt
+				/ m_timeConstant;
+		m_heading += m_rotationSpeed * dt;
+		double radians = Math.toRadians(m_heading);
+		m_x += (m_strafeSpeed * Math.cos(radians)
+				+ m_forwardSpeed * Math.sin(radians)) * dt;
+		m_y += (m_forwardSpeed * Math.cos(radians)
+				- m_strafeSpeed * Math.sin(radians)) * dt;
+		/* Turning clockwise lowers the gyro value, which is what the gyro
+		 assist in GyroDrive corrects against */
+		gyroSensor.set((int) Math.round(m_gyroCenter
+				- m_rotationSpeed * m_gyroCountsPerDegree));
+	}
+}
@@ -0,0 +1,110 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Models the collector arm, its roller and a ball being pulled in past the
+ * ball sensor. The arm's position goes from 0 at the lower limit switch to 1
+ * at the top where the ball is passed into the catapult.
+ */
+public class CollectorModel
+{
+	SimHardware.SimMotor liftingMotor, rollerMotor;
+	SimHardware.SimAnalog ballSensor;
+	SimHardware.SimDigital lowerLimitSensor;
+	CatapultModel catapult;
+
+	// Arm travel per second at full power, the whole travel is 1
+	double m_armSpeed = 2.5;
+	// Ball travel per second at full roller power, the whole travel is 1
+	double m_rollerSpeed = 2.0;
+	// Ball sensor value when the ball is all the way into the collector
+	int m_ballSensorRange = 600;
+
+	double m_armPosition;
+	double m_ballDepth;
+	boolean m_ballAvailable;
+	boolean m_holdingBall;
+	int m_ballsPassed;
+
+	/**
+	 * @param hardware The simulated hardware the collector's motors and sensors
+	 * were created on
+	 * @param catapult The catapult that the collector passes balls into
+	 */
+	CollectorModel(SimHardware hardware, CatapultModel catapult)
+	{
+		liftingMotor = hardware.getMotor(RobotController.LIFTINGTALONPORT);
+		rollerMotor = hardware.getMotor(RobotController.ROLLERTALONPORT);
+		ballSensor = hardware.getAnalogInput(RobotController.BALLSENSORPORT);
+		lowerLimitSensor
+				= hardware.getDigitalInput(RobotController.LOWERLIMITSENSORPORT);
+		this.catapult = catapult;
+	}
+
+	/**
+	 * Moves the arm and ball forward in time and updates the sensors
+	 *
+	 * @param dt The amount of time to simulate in seconds
+	 */
+	void step(double dt)
+	{
+		m_armPosition += liftingMotor.get() * m_armSpeed * dt;
+		if(m_armPosition < 0)
+		{
+			m_armPosition = 0;
+		}
+		else if(m_armPosition > 1)
+		{
+			m_armPosition = 1;
+		}
+		boolean atBottom = m_armPosition <= 0;
+		// The roller can only pick up a ball from the floor with the arm down
+		if(atBottom && m_ballAvailable && !m_holdingBall)
+		{
+			m_holdingBall = true;
+			m_ballAvailable = false;
+			m_ballDepth = 0;
+		}
+		if(m_holdingBall)
+		{
+			m_ballDepth += rollerMotor.get() * m_rollerSpeed * dt;
+			if(m_ballDepth < 0)
+			{
+				// Rolled back out onto the floor
+				m_holdingBall = false;
+				m_ballAvailable = true;
+				m_ballDepth = 0;
+			}
+			else if(m_ballDepth > 1)
+			{
+				m_ballDepth = 1;
+			}
+			// A ball held deep enough is passed on when the arm reaches the top
+			if(m_armPosition >= 1 && m_ballDepth > 0.5 && catapult.isLowered())
+			{
+				m_holdingBall = false;
+				m_ballDepth = 0;
+				m_ballsPassed++;
+				catapult.load();
+			}
+		}
+		ballSensor.set((int) (m_ballDepth * m_ballSensorRange));
+		// The limit switch reads true until the arm is pressing on it
+		lowerLimitSensor.set(!atBottom);
+	}
+
+	/**
+	 * Puts a ball on the floor in front of the collector
+	 */
+	void placeBall()
+	{
+		m_ballAvailable = true;
+	}
+
+	/**
+	 * @return True if the collector has no ball and none is waiting for it
+	 */
+	boolean isEmpty()
+	{
+		return !m_ballAvailable && !m_holdingBall;
+	}
+}
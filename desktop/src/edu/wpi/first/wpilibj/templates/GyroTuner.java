@@ -0,0 +1,276 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the P constant, I constant and spin threshold for GyroDrive by
+ * simulating strafing runs for every combination in a grid of values, spread
+ * over all of the computer's cores, and writes the best ones to a settings
+ * file
+ */
+public class GyroTuner
+{
+	static final double LOOPPERIOD = 0.02;
+	static final int PHYSICSSTEPS = 10;
+	// Time spent strafing, then time given for the robot to settle
+	static final double STRAFETIME = 3.0;
+	static final double SETTLETIME = 1.0;
+	// Rotation speed in degrees per second below which the robot is settled
+	static final double SETTLEDSPEED = 5.0;
+	// How many degrees of drift one second of settling time is worth
+	static final double SETTLEWEIGHT = 10.0;
+
+	// Strafe powers and strafe rotations that every candidate is tested with
+	static final double[] STRAFEPOWERS = {0.5, 1.0, -0.5, -1.0};
+	static final double[] STRAFEROTATIONS = {20, 45, 90};
+
+	double[] pValues;
+	double[] iValues;
+	double[] thresholdValues;
+
+	/**
+	 * The constants that were tested and how well they held the heading
+	 */
+	public static class Result
+	{
+		double m_pConstant;
+		double m_iConstant;
+		double m_spinThreshold;
+		double m_drift;
+		double m_settlingTime;
+		double m_score;
+
+		public String toString()
+		{
+			return "P=" + m_pConstant + " I=" + m_iConstant + " spinThreshold="
+					+ m_spinThreshold + " drift=" + m_drift + " deg settling="
+					+ m_settlingTime + " s";
+		}
+	}
+
+	/**
+	 * Evaluates a range of the grid, splitting it in half until the range is
+	 * small enough to run on one core
+	 */
+	class GridSearch extends RecursiveTask<Result>
+	{
+		private static final long serialVersionUID = 1L;
+		static final int LEAFSIZE = 8;
+
+		int m_start;
+		int m_end;
+
+		GridSearch(int start, int end)
+		{
+			m_start = start;
+			m_end = end;
+		}
+
+		protected Result compute()
+		{
+			if(m_end - m_start <= LEAFSIZE)
+			{
+				Result best = null;
+				for(int i = m_start; i < m_end; i++)
+				{
+					Result result = evaluate(candidate(i));
+					if(best == null || result.m_score < best.m_score)
+					{
+						best = result;
+					}
+				}
+				return best;
+			}
+			int middle = (m_start + m_end) / 2;
+			GridSearch left = new GridSearch(m_start, middle);
+			left.fork();
+			Result right = new GridSearch(middle, m_end).compute();
+			Result leftResult = left.join();
+			return leftResult.m_score <= right.m_score ? leftResult : right;
+		}
+	}
+
+	/**
+	 * @param pValues The P constants to try
+	 * @param iValues The I constants to try
+	 * @param thresholdValues The spin thresholds to try
+	 */
+	GyroTuner(double[] pValues, double[] iValues, double[] thresholdValues)
+	{
+		this.pValues = pValues;
+		this.iValues = iValues;
+		this.thresholdValues = thresholdValues;
+	}
+
+	/**
+	 * @return The number of combinations in the grid
+	 */
+	int size()
+	{
+		return pValues.length * iValues.length * thresholdValues.length;
+	}
+
+	/**
+	 * @param index The index of a combination in the grid
+	 * @return A result holding the constants of the combination
+	 */
+	Result candidate(int index)
+	{
+		Result result = new Result();
+		result.m_pConstant = pValues[index % pValues.length];
+		index /= pValues.length;
+		result.m_iConstant = iValues[index % iValues.length];
+		index /= iValues.length;
+		result.m_spinThreshold = thresholdValues[index];
+		return result;
+	}
+
+	/**
+	 * Runs every strafing scenario with the candidate's constants and scores
+	 * it by the heading drift and settling time
+	 *
+	 * @param candidate The constants to test
+	 * @return The candidate with its drift, settling time and score filled in
+	 */
+	static Result evaluate(Result candidate)
+	{
+		int scenarios = 0;
+		for(int i = 0; i < STRAFEPOWERS.length; i++)
+		{
+			for(int j = 0; j < STRAFEROTATIONS.length; j++)
+			{
+				strafe(candidate, STRAFEPOWERS[i], STRAFEROTATIONS[j]);
+				scenarios++;
+			}
+		}
+		candidate.m_drift /= scenarios;
+		candidate.m_settlingTime /= scenarios;
+		candidate.m_score = candidate.m_drift
+				+ candidate.m_settlingTime * SETTLEWEIGHT;
+		return candidate;
+	}
+
+	/**
+	 * Strafes with gyro assist on, the same way teleopPeriodic does with the
+	 * twist centered, and adds the drift and settling time to the candidate
+	 *
+	 * @param candidate The constants to test
+	 * @param strafePower The joystick x value to strafe with
+	 * @param strafeRotation The rotation in degrees per second that strafing
+	 * at full power causes
+	 */
+	static void strafe(Result candidate, double strafePower,
+			double strafeRotation)
+	{
+		SimHardware hardware = new SimHardware();
+		OutputBatch outputs = new OutputBatch(hardware, 4);
+		Chassis chassis = new Chassis(outputs,
+				RobotController.LEFTFRONTTALONPORT,
+				RobotController.LEFTREARTALONPORT,
+				RobotController.RIGHTFRONTTALONPORT,
+				RobotController.RIGHTREARTALONPORT);
+		hardware.analogInput(RobotController.GYROSENSORPORT);
+		ChassisModel model = new ChassisModel(hardware);
+		model.m_strafeRotation = strafeRotation;
+		GyroDrive gyroDrive = new GyroDrive(hardware.getClock());
+		gyroDrive.reinit();
+		SimHardware.SimAnalog gyroSensor
+				= hardware.getAnalogInput(RobotController.GYROSENSORPORT);
+		model.step(0);
+		double dt = LOOPPERIOD / PHYSICSSTEPS;
+		int loops = (int) ((STRAFETIME + SETTLETIME) / LOOPPERIOD);
+		double lastUnsettledTime = 0;
+		for(int loop = 0; loop < loops; loop++)
+		{
+			double time = loop * LOOPPERIOD;
+			double x = time < STRAFETIME ? strafePower : 0;
+			int gyroValue = gyroSensor.getValue() - 476;
+			double rotation = gyroDrive.getAdjustedRotationValue(x, 0, 0,
+					candidate.m_pConstant, candidate.m_iConstant,
+					candidate.m_spinThreshold, gyroValue);
+			chassis.setJoystickData(x, 0, rotation);
+			chassis.idle();
+			outputs.flush();
+			for(int i = 0; i < PHYSICSSTEPS; i++)
+			{
+				hardware.getClock().advance(dt);
+				model.step(dt);
+			}
+			if(Math.abs(model.m_rotationSpeed) > SETTLEDSPEED)
+			{
+				lastUnsettledTime = time;
+			}
+		}
+		candidate.m_drift += Math.abs(model.m_heading);
+		candidate.m_settlingTime += lastUnsettledTime;
+	}
+
+	/**
+	 * Searches the whole grid on all of the cores
+	 *
+	 * @return The combination with the lowest score
+	 */
+	Result search()
+	{
+		return ForkJoinPool.commonPool().invoke(new GridSearch(0, size()));
+	}
+
+	/**
+	 * Writes the constants to a settings file in the format Settings reads,
+	 * the other settings keep their defaults unless copied in by hand
+	 *
+	 * @param result The constants to write
+	 * @param filename The name of the settings file to write
+	 */
+	static void writeSettings(Result result, String filename)
+			throws IOException
+	{
+		FileWriter writer = new FileWriter(filename);
+		try
+		{
+			writer.write("rotationPConstant=" + result.m_pConstant + "\n");
+			writer.write("rotationIConstant=" + result.m_iConstant + "\n");
+			writer.write("spinThreshold=" + result.m_spinThreshold + "\n");
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	/**
+	 * @param start The first value
+	 * @param step The difference between each value
+	 * @param count The number of values
+	 * @return The evenly spaced values
+	 */
+	static double[] range(double start, double step, int count)
+	{
+		double[] values = new double[count];
+		for(int i = 0; i < count; i++)
+		{
+			values[i] = start + step * i;
+		}
+		return values;
+	}
+
+	/**
+	 * Tunes the constants and writes them to the file named by the first
+	 * argument, or settings.tuned.txt
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		GyroTuner tuner = new GyroTuner(range(0.01, 0.01, 30),
+				range(0.0, 0.002, 11), range(10, 10, 10));
+		long start = System.nanoTime();
+		Result best = tuner.search();
+		long elapsed = System.nanoTime() - start;
+		System.out.println("Tried " + tuner.size() + " combinations in "
+				+ elapsed / 1000000 + " ms");
+		System.out.println("Best: " + best);
+		writeSettings(best, args.length > 0 ? args[0] : "settings.tuned.txt");
+	}
+}
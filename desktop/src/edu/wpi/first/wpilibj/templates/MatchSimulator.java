@@ -0,0 +1,326 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Runs the robot code against physics models of the catapult, collector and
+ * chassis on a virtual clock, so whole matches can be simulated in much less
+ * time than they take on the field
+ */
+public class MatchSimulator
+{
+	static final double LOOPPERIOD = 0.02;
+	static final double AUTONOMOUSLENGTH = 10;
+	static final double TELEOPLENGTH = 140;
+
+	SimHardware hardware;
+	RobotController controller;
+	CatapultModel catapultModel;
+	CollectorModel collectorModel;
+	ChassisModel chassisModel;
+	Driver driver;
+
+	int m_physicsSteps = 20;
+	// Times teleopPeriodic is called in each loop period, more than one acts
+	// like the robot's scheduler thread running the fast tasks between packets
+	int m_teleopCalls = 1;
+	// Samples the analog inputs and polls the catapult's firing watcher, the
+	// collector's edge watchers and the motor watchdog every physics step,
+	// like their threads do on the robot
+	boolean m_watchers = true;
+	boolean m_logging;
+	int m_mode;
+	boolean m_modeStarting;
+	double m_modeStartTime;
+
+	/**
+	 * Sets the joystick and places balls before each loop of the robot code
+	 */
+	public interface Driver
+	{
+		/**
+		 * @param sim The simulator, used to read the models and to set the
+		 * joystick
+		 * @param modeTime The time in seconds since the current mode started
+		 */
+		void update(MatchSimulator sim, double modeTime);
+	}
+
+	/**
+	 * Drives to a ball, collects it and fires it as fast as the robot allows,
+	 * measuring the time from one shot to the next
+	 */
+	public static class ShotCycleDriver implements Driver
+	{
+		// Time in seconds to drive from the shooting spot to the next ball
+		double m_driveTime = 2.0;
+
+		double m_ballPlacedTime = -1;
+		double m_lastShotTime = -1;
+		double m_totalCycleTime;
+		int m_cycles;
+		int m_shotsSeen;
+
+		public void update(MatchSimulator sim, double modeTime)
+		{
+			SimHardware.SimDriverInput input = sim.hardware.getDriverInput();
+			input.setButton(1, false);
+			input.setButton(2, false);
+			if(sim.m_mode != RobotController.Mode.teleop)
+			{
+				return;
+			}
+			if(sim.catapultModel.m_shots > m_shotsSeen)
+			{
+				m_shotsSeen = sim.catapultModel.m_shots;
+				if(m_lastShotTime >= 0)
+				{
+					m_totalCycleTime += modeTime - m_lastShotTime;
+					m_cycles++;
+				}
+				m_lastShotTime = modeTime;
+			}
+			if(sim.collectorModel.isEmpty() && !sim.catapultModel.m_loaded)
+			{
+				// Drive to the next ball, then start collecting it
+				if(m_ballPlacedTime < 0)
+				{
+					m_ballPlacedTime = modeTime + m_driveTime;
+				}
+				else if(modeTime >= m_ballPlacedTime)
+				{
+					sim.collectorModel.placeBall();
+					input.setButton(2, true);
+					m_ballPlacedTime = -1;
+				}
+			}
+			else if(sim.catapultModel.m_loaded
+					&& sim.collectorModel.m_armPosition < 0.5
+					&& sim.controller.catapult.getState()
+					== Catapult.CatapultState.waiting)
+			{
+				sim.catapultModel.resetPeak();
+				input.setButton(1, true);
+			}
+		}
+
+		/**
+		 * @return The average time in seconds from one shot to the next
+		 */
+		double getAverageCycleTime()
+		{
+			if(m_cycles == 0)
+			{
+				return 0;
+			}
+			return m_totalCycleTime / m_cycles;
+		}
+	}
+
+	/**
+	 * @param settings The contents of the settings file the robot code reads
+	 * @param driver The driver that controls the joystick during the match
+	 */
+	MatchSimulator(String settings, Driver driver)
+	{
+		hardware = new SimHardware();
+		hardware.setFile("settings.txt", settings);
+		controller = new RobotController(hardware);
+		catapultModel = new CatapultModel(hardware);
+		collectorModel = new CollectorModel(hardware, catapultModel);
+		chassisModel = new ChassisModel(hardware);
+		this.driver = driver;
+		chassisModel.step(0);
+		collectorModel.step(0);
+		controller.robotInit();
+	}
+
+	/**
+	 * Writes the robot's telemetry to a log on the simulated hardware, drained
+	 * after every loop instead of from the telemetry thread so no samples are
+	 * dropped
+	 *
+	 * @return The name of the log file
+	 */
+	String startLog()
+	{
+		controller.telemetryWriter.open();
+		m_logging = true;
+		return controller.telemetryWriter.m_filename;
+	}
+
+	/**
+	 * Switches the robot into a mode, the mode's init method is called just
+	 * before its first loop like IterativeRobot does
+	 *
+	 * @param mode The mode to switch to
+	 */
+	void setMode(int mode)
+	{
+		m_mode = mode;
+		m_modeStarting = true;
+		m_modeStartTime = hardware.getClock().getTime();
+	}
+
+	/**
+	 * Calls the init method of the current mode
+	 */
+	void initMode()
+	{
+		m_modeStarting = false;
+		switch(m_mode)
+		{
+			case RobotController.Mode.disabled:
+				controller.disabledInit();
+				break;
+
+			case RobotController.Mode.autonomous:
+				controller.autonomousInit();
+				break;
+
+			case RobotController.Mode.teleop:
+				controller.teleopInit();
+				break;
+		}
+	}
+
+	/**
+	 * Simulates one loop period of the physics and then runs one loop of the
+	 * robot code for the current mode
+	 */
+	void step()
+	{
+		int calls = m_mode == RobotController.Mode.teleop ? m_teleopCalls : 1;
+		double dt = LOOPPERIOD / m_physicsSteps;
+		for(int call = 0; call < calls; call++)
+		{
+			for(int i = 0; i < m_physicsSteps / calls; i++)
+			{
+				hardware.getClock().advance(dt);
+				catapultModel.step(dt);
+				collectorModel.step(dt);
+				chassisModel.step(dt);
+				if(m_watchers)
+				{
+					controller.sensorSampler.sample();
+					controller.catapult.firingWatcher.poll();
+					controller.collector.limitWatcher.poll();
+					controller.collector.ballWatcher.poll();
+					controller.outputs.poll();
+				}
+			}
+			if(call == calls - 1)
+			{
+				driver.update(this, hardware.getClock().getTime()
+						- m_modeStartTime);
+			}
+			if(m_modeStarting)
+			{
+				initMode();
+			}
+			switch(m_mode)
+			{
+				case RobotController.Mode.disabled:
+					controller.disabledPeriodic();
+					break;
+
+				case RobotController.Mode.autonomous:
+					controller.autonomousPeriodic();
+					break;
+
+				case RobotController.Mode.teleop:
+					controller.teleopPeriodic();
+					break;
+			}
+			if(m_logging)
+			{
+				controller.telemetryWriter.drain();
+			}
+		}
+	}
+
+	/**
+	 * Runs the robot code in a mode for an amount of virtual time
+	 *
+	 * @param mode The mode to run
+	 * @param length The length of the mode in seconds
+	 */
+	void run(int mode, double length)
+	{
+		setMode(mode);
+		int loops = (int) (length / LOOPPERIOD);
+		for(int i = 0; i < loops; i++)
+		{
+			step();
+		}
+	}
+
+	/**
+	 * Runs a full match: a moment disabled, autonomous, disabled between the
+	 * periods and then teleop
+	 */
+	void runMatch()
+	{
+		run(RobotController.Mode.disabled, 1);
+		run(RobotController.Mode.autonomous, AUTONOMOUSLENGTH);
+		run(RobotController.Mode.disabled, 1);
+		run(RobotController.Mode.teleop, TELEOPLENGTH);
+	}
+
+	/**
+	 * Simulates a match with the settings file named by the first argument, or
+	 * the one in the working directory, and prints the shot cycle time and how
+	 * long each state lasted. The match's telemetry log is saved to the file
+	 * named by the second argument if there is one, and a third argument sets
+	 * how many times teleopPeriodic is called in each loop period.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		String settings = new String(java.nio.file.Files.readAllBytes(
+				java.nio.file.Paths.get(args.length > 0 ? args[0]
+						: "settings.txt")));
+		ShotCycleDriver driver = new ShotCycleDriver();
+		MatchSimulator sim = new MatchSimulator(settings, driver);
+		if(args.length > 2)
+		{
+			sim.m_teleopCalls = Integer.parseInt(args[2]);
+		}
+		String log = args.length > 1 ? sim.startLog() : null;
+		long start = System.nanoTime();
+		sim.runMatch();
+		long elapsed = System.nanoTime() - start;
+		if(log != null)
+		{
+			java.nio.file.Files.write(java.nio.file.Paths.get(args[1]),
+					sim.hardware.getCreatedFile(log));
+		}
+		System.out.println("Simulated match in " + elapsed / 1000000 + " ms");
+		System.out.println("Shots: " + sim.catapultModel.m_shots
+				+ ", average cycle time: " + driver.getAverageCycleTime()
+				+ " s");
+		System.out.println("Catapult firing: "
+				+ sim.controller.catapult.states.getAverageDwell(
+						Catapult.CatapultState.firing)
+				+ " s, lowering: "
+				+ sim.controller.catapult.states.getAverageDwell(
+						Catapult.CatapultState.lowering)
+				+ " s");
+		System.out.println("Collector lowering: "
+				+ sim.controller.collector.substates.getAverageDwell(
+						Collector.CollectorAutoSubstate.lowering)
+				+ " s, waiting: "
+				+ sim.controller.collector.substates.getAverageDwell(
+						Collector.CollectorAutoSubstate.waiting)
+				+ " s, waitForBall: "
+				+ sim.controller.collector.substates.getAverageDwell(
+						Collector.CollectorAutoSubstate.waitForBall)
+				+ " s, raising: "
+				+ sim.controller.collector.substates.getAverageDwell(
+						Collector.CollectorAutoSubstate.raising)
+				+ " s");
+		System.out.println("Catapult overshoot on the last shot: "
+				+ (sim.catapultModel.m_peakPosition
+				- sim.controller.catapult.m_stoppingClicks) + " clicks");
+		sim.controller.catapult.shotRecorder.printReport();
+		sim.controller.catapult.states.printReport();
+		sim.controller.collector.substates.printReport();
+	}
+}
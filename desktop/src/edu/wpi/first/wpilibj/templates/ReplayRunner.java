@@ -0,0 +1,372 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a telemetry log through the robot code on simulated hardware. Each
+ * sample's joystick and sensor values are fed to the loop that ran in the
+ * sample's mode on the virtual clock, and the motor powers and states the code
+ * commands are compared with the ones in the log. A change to the robot code
+ * can then be checked against real matches before it goes on the robot.
+ */
+public class ReplayRunner
+{
+	// Powers are logged as floats and the axes they are computed from too
+	static final double TOLERANCE = 0.0001;
+	// Mismatches after this many are counted but not described
+	static final int MAXREPORTED = 20;
+
+	static final int[] MOTORS =
+	{
+		TelemetryBuffer.DoubleField.leftFrontMotor,
+		TelemetryBuffer.DoubleField.leftRearMotor,
+		TelemetryBuffer.DoubleField.rightFrontMotor,
+		TelemetryBuffer.DoubleField.rightRearMotor,
+		TelemetryBuffer.DoubleField.catapultOneMotor,
+		TelemetryBuffer.DoubleField.catapultTwoMotor,
+		TelemetryBuffer.DoubleField.liftingMotor,
+		TelemetryBuffer.DoubleField.rollerMotor
+	};
+	static final int[] AXES = {1, 2, 3, 5, 6};
+	static final int[] AXISFIELDS =
+	{
+		TelemetryBuffer.DoubleField.xAxis,
+		TelemetryBuffer.DoubleField.yAxis,
+		TelemetryBuffer.DoubleField.twistAxis,
+		TelemetryBuffer.DoubleField.rollerAxis,
+		TelemetryBuffer.DoubleField.raiseAxis
+	};
+
+	String name;
+	SimHardware hardware;
+	RobotController controller;
+	TelemetryLogReader reader;
+
+	int m_mode = -1;
+	int m_dropped;
+	int m_samples;
+	int m_mismatches;
+	int m_gaps;
+	StringBuilder m_report = new StringBuilder();
+
+	/**
+	 * @param name The name of the log, used in the report
+	 * @param settings The contents of the settings file the robot ran with
+	 * @param reader The log to replay
+	 */
+	ReplayRunner(String name, String settings, TelemetryLogReader reader)
+	{
+		this.name = name;
+		this.reader = reader;
+		hardware = new SimHardware();
+		hardware.setFile("settings.txt", settings);
+		controller = new RobotController(hardware);
+		controller.robotInit();
+	}
+
+	/**
+	 * Replays the next sample of the log
+	 *
+	 * @return False if there are no more samples
+	 */
+	boolean step()
+	{
+		if(!reader.next())
+		{
+			return false;
+		}
+		int[] ints = reader.ints;
+		double[] doubles = reader.doubles;
+		if(ints[TelemetryBuffer.IntField.dropped] != m_dropped)
+		{
+			// The inputs of the dropped loops are lost, so the robot code may
+			// not be in the same state as it was on the robot any more
+			report("gap of " + (ints[TelemetryBuffer.IntField.dropped]
+					- m_dropped) + " samples");
+			m_dropped = ints[TelemetryBuffer.IntField.dropped];
+			m_gaps++;
+		}
+		setInputs(ints, doubles);
+		replayEdges(ints, doubles, true);
+		int mode = ints[TelemetryBuffer.IntField.mode];
+		if(mode != m_mode)
+		{
+			m_mode = mode;
+			switch(mode)
+			{
+				case RobotController.Mode.disabled:
+					controller.disabledInit();
+					break;
+
+				case RobotController.Mode.autonomous:
+					controller.autonomousInit();
+					break;
+
+				case RobotController.Mode.teleop:
+					controller.teleopInit();
+					break;
+			}
+		}
+		switch(mode)
+		{
+			case RobotController.Mode.disabled:
+				controller.disabledPeriodic();
+				break;
+
+			case RobotController.Mode.autonomous:
+				controller.autonomousPeriodic();
+				break;
+
+			case RobotController.Mode.teleop:
+				controller.teleopPeriodic();
+				break;
+		}
+		replayEdges(ints, doubles, false);
+		compare(ints, doubles);
+		m_samples++;
+		return true;
+	}
+
+	/**
+	 * Sets the clock, joystick and sensors to the values a sample's loop read
+	 */
+	void setInputs(int[] ints, double[] doubles)
+	{
+		hardware.getClock().setTime(doubles[TelemetryBuffer.DoubleField.time]);
+		SimHardware.SimDriverInput input = hardware.getDriverInput();
+		for(int i = 0; i < AXES.length; i++)
+		{
+			input.setAxis(AXES[i], doubles[AXISFIELDS[i]]);
+		}
+		int buttons = ints[TelemetryBuffer.IntField.buttons];
+		for(int i = 1; i <= 12; i++)
+		{
+			input.setButton(i, (buttons & (1 << (i - 1))) != 0);
+		}
+		int digitalInputs = ints[TelemetryBuffer.IntField.digitalInputs];
+		for(int i = 1; i <= 8; i++)
+		{
+			input.setDigitalIn(i, (digitalInputs & (1 << (i - 1))) != 0);
+		}
+		SimHardware.SimEncoder encoder
+				= hardware.getEncoder(RobotController.CATAPULTENCODERPORTA);
+		encoder.setCount(ints[TelemetryBuffer.IntField.encoder]);
+		encoder.setRate(doubles[TelemetryBuffer.DoubleField.encoderRate]);
+		// The log holds the filtered values the loop read, so they are
+		// published straight to the filters, and the raw inputs are set for
+		// the collector's ball trigger
+		setAnalog(RobotController.GYROSENSORPORT, controller.gyroSensor,
+				ints[TelemetryBuffer.IntField.gyro]);
+		setAnalog(RobotController.ULTRASONICSENSORPORT,
+				controller.ultrasonicSensor,
+				ints[TelemetryBuffer.IntField.ultrasonic]);
+		setAnalog(RobotController.BALLSENSORPORT, controller.collector.ballSensor,
+				ints[TelemetryBuffer.IntField.ballSensor]);
+		hardware.getDigitalInput(RobotController.LOWERLIMITSENSORPORT).set(
+				ints[TelemetryBuffer.IntField.lowerLimit] != 0);
+		controller.gyroHeading.publish(
+				doubles[TelemetryBuffer.DoubleField.heading],
+				doubles[TelemetryBuffer.DoubleField.gyroRate],
+				doubles[TelemetryBuffer.DoubleField.gyroBias]);
+	}
+
+	void setAnalog(int port, FilteredAnalog filtered, int value)
+	{
+		hardware.getAnalogInput(port).set(value);
+		filtered.publish(value);
+	}
+
+	/**
+	 * Hands the collector the edges its watchers acted on in a sample, at the
+	 * times they were seen. The edges seen before the loop started are
+	 * replayed before it and the rest after it, the state they lead to is the
+	 * same either way.
+	 *
+	 * @param beforeLoop True for the edges before the loop, false for the
+	 * rest
+	 */
+	void replayEdges(int[] ints, double[] doubles, boolean beforeLoop)
+	{
+		int edges = ints[TelemetryBuffer.IntField.collectorEdges];
+		double time = doubles[TelemetryBuffer.DoubleField.time];
+		// The arm reaches the bottom before the ball can be seen
+		replayEdge(edges, Collector.CollectorGuard.lowerLimitReached,
+				doubles[TelemetryBuffer.DoubleField.limitEdgeTime], time,
+				beforeLoop);
+		replayEdge(edges, Collector.CollectorGuard.ballSeen,
+				doubles[TelemetryBuffer.DoubleField.ballEdgeTime], time,
+				beforeLoop);
+		hardware.getClock().setTime(time);
+	}
+
+	void replayEdge(int edges, int guard, double edgeTime, double time,
+			boolean beforeLoop)
+	{
+		if((edges & (1 << guard)) == 0 || (edgeTime < time) != beforeLoop)
+		{
+			return;
+		}
+		hardware.getClock().setTime(edgeTime);
+		Collector collector = controller.collector;
+		if(guard == Collector.CollectorGuard.lowerLimitReached)
+		{
+			collector.onEdge(collector.lowerLimitSensor, false);
+		}
+		else
+		{
+			collector.onEdge(collector.ballTrigger, true);
+		}
+	}
+
+	/**
+	 * Compares the states and motor powers of the loop that just ran with the
+	 * ones in the log
+	 */
+	void compare(int[] ints, double[] doubles)
+	{
+		compareState(TelemetryBuffer.IntField.catapultState,
+				controller.catapult.getState(), ints);
+		compareState(TelemetryBuffer.IntField.collectorMode,
+				controller.collector.getMode(), ints);
+		compareState(TelemetryBuffer.IntField.collectorSubstate,
+				controller.collector.getSubstate(), ints);
+		for(int i = 0; i < MOTORS.length; i++)
+		{
+			double expected = doubles[MOTORS[i]];
+			double actual = (float) getMotorPower(MOTORS[i]);
+			if(Math.abs(actual - expected) > TOLERANCE)
+			{
+				mismatch(TelemetryBuffer.DoubleField.names[MOTORS[i]],
+						String.valueOf(expected), String.valueOf(actual));
+			}
+		}
+	}
+
+	void compareState(int field, int actual, int[] ints)
+	{
+		if(ints[field] != actual)
+		{
+			mismatch(TelemetryBuffer.IntField.names[field],
+					String.valueOf(ints[field]), String.valueOf(actual));
+		}
+	}
+
+	/**
+	 * @param field The motor's field from TelemetryBuffer.DoubleField
+	 * @return The power the robot code has set the motor to
+	 */
+	double getMotorPower(int field)
+	{
+		switch(field)
+		{
+			case TelemetryBuffer.DoubleField.leftFrontMotor:
+				return controller.chassis.leftFrontTalon.get();
+
+			case TelemetryBuffer.DoubleField.leftRearMotor:
+				return controller.chassis.leftRearTalon.get();
+
+			case TelemetryBuffer.DoubleField.rightFrontMotor:
+				return controller.chassis.rightFrontTalon.get();
+
+			case TelemetryBuffer.DoubleField.rightRearMotor:
+				return controller.chassis.rightRearTalon.get();
+
+			case TelemetryBuffer.DoubleField.catapultOneMotor:
+				return controller.catapult.motorOneTalon.get();
+
+			case TelemetryBuffer.DoubleField.catapultTwoMotor:
+				return controller.catapult.motorTwoTalon.get();
+
+			case TelemetryBuffer.DoubleField.liftingMotor:
+				return controller.collector.liftingTalon.get();
+
+			default:
+				return controller.collector.rollerTalon.get();
+		}
+	}
+
+	void mismatch(String field, String expected, String actual)
+	{
+		m_mismatches++;
+		if(m_mismatches <= MAXREPORTED)
+		{
+			report(field + " expected " + expected + " but was " + actual);
+		}
+	}
+
+	void report(String message)
+	{
+		m_report.append(name).append(": sample ").append(m_samples)
+				.append(" (").append(reader.doubles[
+						TelemetryBuffer.DoubleField.time]).append(" s): ")
+				.append(message).append('\n');
+	}
+
+	/**
+	 * Replays every sample left in the log
+	 *
+	 * @return A report of the mismatches and a summary line
+	 */
+	String run()
+	{
+		while(step())
+		{
+		}
+		m_report.append(name).append(": ").append(m_samples)
+				.append(" samples, ").append(m_mismatches)
+				.append(" mismatches, ").append(m_gaps).append(" gaps");
+		return m_report.toString();
+	}
+
+	/**
+	 * Replays the logs named by the arguments, several at once, and prints
+	 * the mismatches found in each. The settings file the robot ran with is
+	 * given by "-settings file", otherwise settings.txt in the working
+	 * directory is used. Exits with status 1 if any log did not match.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		String settingsFile = "settings.txt";
+		List<String> logs = new ArrayList<>();
+		for(int i = 0; i < args.length; i++)
+		{
+			if(args[i].equals("-settings") && i + 1 < args.length)
+			{
+				settingsFile = args[++i];
+			}
+			else
+			{
+				logs.add(args[i]);
+			}
+		}
+		String settings = new String(java.nio.file.Files.readAllBytes(
+				java.nio.file.Paths.get(settingsFile)));
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors());
+		List<Future<ReplayRunner>> results = new ArrayList<>();
+		for(String log : logs)
+		{
+			results.add(executor.submit(() ->
+			{
+				ReplayRunner runner = new ReplayRunner(log, settings,
+						new TelemetryLogReader(log));
+				runner.run();
+				return runner;
+			}));
+		}
+		executor.shutdown();
+		boolean matched = true;
+		for(Future<ReplayRunner> result : results)
+		{
+			ReplayRunner runner = result.get();
+			System.out.println(runner.m_report);
+			matched &= runner.m_mismatches == 0;
+		}
+		System.exit(matched ? 0 : 1);
+	}
+}
@@ -0,0 +1,513 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Hashtable;
+
+/**
+ * Creates in-memory actuators and sensors and a virtual clock so that the
+ * robot code can be run and profiled on a desktop computer. Every port is
+ * remembered so a test or simulation can read the motor powers and set the
+ * sensor values between loops.
+ */
+public class SimHardware implements Hardware
+{
+	// The cRIO has 10 PWM ports, 14 digital I/O ports and 8 analog inputs
+	SimMotor[] motors = new SimMotor[11];
+	SimEncoder[] encoders = new SimEncoder[15];
+	SimAnalog[] analogInputs = new SimAnalog[9];
+	SimDigital[] digitalInputs = new SimDigital[15];
+	SimDriverInput driverInput = new SimDriverInput();
+	SimDisplay driverDisplay = new SimDisplay();
+	SimClock clock = new SimClock();
+	Hashtable<String, String> files = new Hashtable<String, String>();
+	Hashtable<String, Long> fileModifiedTimes = new Hashtable<String, Long>();
+	Hashtable<String, ByteArrayOutputStream> createdFiles
+			= new Hashtable<String, ByteArrayOutputStream>();
+	long m_fileChanges;
+
+	/**
+	 * A motor controller that remembers the power it was set to
+	 */
+	public static class SimMotor implements SpeedOutput
+	{
+		double m_power;
+		int m_writes;
+
+		public void set(double power)
+		{
+			m_power = power;
+			m_writes++;
+		}
+
+		public double get()
+		{
+			return m_power;
+		}
+
+		/**
+		 * @return The number of times the motor has been set
+		 */
+		public int getWrites()
+		{
+			return m_writes;
+		}
+	}
+
+	/**
+	 * An encoder whose position is set by the simulation, resetting it only
+	 * moves the zero point like a real encoder. The simulation sets the
+	 * reading the robot code expects, so the direction a real encoder is
+	 * reversed in doesn't apply.
+	 */
+	public static class SimEncoder implements EncoderSensor
+	{
+		int m_position;
+		int m_offset;
+		double m_rate;
+
+		public int get()
+		{
+			return m_position - m_offset;
+		}
+
+		public void reset()
+		{
+			m_offset = m_position;
+		}
+
+		public double getRate()
+		{
+			return m_rate;
+		}
+
+		/**
+		 * @param rate The rate the encoder reads in "clicks" per second
+		 */
+		public void setRate(double rate)
+		{
+			m_rate = rate;
+		}
+
+		/**
+		 * @param position The absolute position of the shaft in "clicks"
+		 */
+		public void setPosition(int position)
+		{
+			m_position = position;
+		}
+
+		/**
+		 * @param count The count the encoder reads until it is next moved or
+		 * reset
+		 */
+		public void setCount(int count)
+		{
+			m_position = m_offset + count;
+		}
+	}
+
+	/**
+	 * An analog input whose value is set by the simulation
+	 */
+	public static class SimAnalog implements AnalogSensor
+	{
+		int m_value;
+
+		public int getValue()
+		{
+			return m_value;
+		}
+
+		/**
+		 * @param value The raw value the analog input will return
+		 */
+		public void set(int value)
+		{
+			m_value = value;
+		}
+	}
+
+	/**
+	 * A digital input whose state is set by the simulation
+	 */
+	public static class SimDigital implements DigitalSensor
+	{
+		boolean m_state;
+
+		public synchronized boolean get()
+		{
+			return m_state;
+		}
+
+		public synchronized void waitForEdge(double timeout)
+		{
+			boolean state = m_state;
+			long end = System.currentTimeMillis() + (long) (timeout * 1000);
+			long remaining = end - System.currentTimeMillis();
+			while(m_state == state && remaining > 0)
+			{
+				try
+				{
+					wait(remaining);
+				}
+				catch(InterruptedException e)
+				{
+					return;
+				}
+				remaining = end - System.currentTimeMillis();
+			}
+		}
+
+		/**
+		 * @param state The state the digital input will return
+		 */
+		public synchronized void set(boolean state)
+		{
+			m_state = state;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * A trigger on a simulated analog input, its state is worked out from the
+	 * input's value each time it is read
+	 */
+	public static class SimAnalogTrigger implements AnalogTriggerSensor
+	{
+		SimAnalog input;
+		int m_lower;
+		int m_upper;
+		boolean m_state;
+
+		SimAnalogTrigger(SimAnalog input)
+		{
+			this.input = input;
+		}
+
+		public synchronized boolean get()
+		{
+			int value = input.getValue();
+			if(value >= m_upper)
+			{
+				m_state = true;
+			}
+			else if(value < m_lower)
+			{
+				m_state = false;
+			}
+			return m_state;
+		}
+
+		public void waitForEdge(double timeout)
+		{
+			// The simulated analog input can't notify, so it is polled
+			boolean state = get();
+			long end = System.currentTimeMillis() + (long) (timeout * 1000);
+			while(get() == state && System.currentTimeMillis() < end)
+			{
+				try
+				{
+					Thread.sleep(1);
+				}
+				catch(InterruptedException e)
+				{
+					return;
+				}
+			}
+		}
+
+		public synchronized void setLimits(int lower, int upper)
+		{
+			// The robot passes upper - 1 to the FPGA, which throws if the
+			// limits cross
+			if(lower > upper - 1)
+			{
+				throw new IllegalArgumentException("Analog trigger lower limit "
+						+ lower + " is above upper limit " + (upper - 1));
+			}
+			m_lower = lower;
+			m_upper = upper;
+		}
+	}
+
+	/**
+	 * A joystick and driver station digital inputs set by the simulation
+	 */
+	public static class SimDriverInput implements DriverInput
+	{
+		// The joystick has 6 axes and 12 buttons, the driver station has 8
+		// digital inputs, all numbered from 1
+		double[] m_axes = new double[7];
+		boolean[] m_buttons = new boolean[13];
+		boolean[] m_digitalInputs = new boolean[9];
+
+		public double getRawAxis(int axis)
+		{
+			return m_axes[axis];
+		}
+
+		public boolean getRawButton(int button)
+		{
+			return m_buttons[button];
+		}
+
+		public int getButtons()
+		{
+			int buttons = 0;
+			for(int i = 1; i < m_buttons.length; i++)
+			{
+				if(m_buttons[i])
+				{
+					buttons |= 1 << (i - 1);
+				}
+			}
+			return buttons;
+		}
+
+		public boolean getDigitalIn(int channel)
+		{
+			return m_digitalInputs[channel];
+		}
+
+		public void setAxis(int axis, double value)
+		{
+			m_axes[axis] = value;
+		}
+
+		public void setButton(int button, boolean pressed)
+		{
+			m_buttons[button] = pressed;
+		}
+
+		public void setDigitalIn(int channel, boolean on)
+		{
+			m_digitalInputs[channel] = on;
+		}
+	}
+
+	/**
+	 * A driver station LCD that remembers its lines and counts how often it is
+	 * sent
+	 */
+	public static class SimDisplay implements DriverDisplay
+	{
+		String[] m_lines = new String[7];
+		int m_updates;
+
+		public void clear()
+		{
+			for(int i = 0; i < m_lines.length; i++)
+			{
+				m_lines[i] = null;
+			}
+		}
+
+		public void println(int line, int startingColumn, StringBuffer text)
+		{
+			m_lines[line] = text.toString();
+		}
+
+		public void updateLCD()
+		{
+			m_updates++;
+		}
+
+		/**
+		 * @param line The number of the user line, from 1 to 6
+		 * @return The text last written to the line
+		 */
+		public String getLine(int line)
+		{
+			return m_lines[line];
+		}
+
+		/**
+		 * @return The number of times the LCD has been sent
+		 */
+		public int getUpdates()
+		{
+			return m_updates;
+		}
+	}
+
+	/**
+	 * A clock that only moves forward when the simulation advances it. Time
+	 * is kept in whole microseconds like the FPGA clock, so a time read back
+	 * from a telemetry log is exactly the time the robot code saw.
+	 */
+	public static class SimClock implements Clock
+	{
+		long m_microseconds;
+
+		public double getTime()
+		{
+			return m_microseconds / 1000000.0;
+		}
+
+		/**
+		 * @param seconds The amount of virtual time to move forward
+		 */
+		public void advance(double seconds)
+		{
+			m_microseconds += Math.round(seconds * 1000000);
+		}
+
+		/**
+		 * @param time The virtual time in seconds to jump to
+		 */
+		public void setTime(double time)
+		{
+			m_microseconds = Math.round(time * 1000000);
+		}
+	}
+
+	public SpeedOutput motor(int port)
+	{
+		motors[port] = new SimMotor();
+		return motors[port];
+	}
+
+	public EncoderSensor encoder(int portA, int portB, boolean reverse)
+	{
+		encoders[portA] = new SimEncoder();
+		return encoders[portA];
+	}
+
+	public AnalogSensor analogInput(int port)
+	{
+		analogInputs[port] = new SimAnalog();
+		return analogInputs[port];
+	}
+
+	public AnalogTriggerSensor analogTrigger(int port)
+	{
+		return new SimAnalogTrigger(analogInputs[port]);
+	}
+
+	public DigitalSensor digitalInput(int port)
+	{
+		digitalInputs[port] = new SimDigital();
+		return digitalInputs[port];
+	}
+
+	public DriverInput driverInput(int joystickPort)
+	{
+		return driverInput;
+	}
+
+	public DriverDisplay driverDisplay()
+	{
+		return driverDisplay;
+	}
+
+	public Clock clock()
+	{
+		return clock;
+	}
+
+	public InputStream openFile(String filename) throws IOException
+	{
+		String contents = files.get(filename);
+		if(contents == null)
+		{
+			throw new FileNotFoundException(filename);
+		}
+		return new ByteArrayInputStream(contents.getBytes());
+	}
+
+	public OutputStream createFile(String filename)
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		createdFiles.put(filename, output);
+		m_fileChanges++;
+		fileModifiedTimes.put(filename, Long.valueOf(m_fileChanges));
+		return output;
+	}
+
+	/**
+	 * @param filename The name of a file the robot code created
+	 * @return The bytes the robot code has written to the file, or null if it
+	 * was never created
+	 */
+	public byte[] getCreatedFile(String filename)
+	{
+		ByteArrayOutputStream output = createdFiles.get(filename);
+		return output == null ? null : output.toByteArray();
+	}
+
+	public long getFileModified(String filename)
+	{
+		Long modifiedTime = fileModifiedTimes.get(filename);
+		return modifiedTime == null ? 0 : modifiedTime.longValue();
+	}
+
+	/**
+	 * Stores the contents of a file that the robot code can read
+	 *
+	 * @param filename The name of the file
+	 * @param contents The text of the file, with lines separated by '\n'
+	 */
+	public void setFile(String filename, String contents)
+	{
+		files.put(filename, contents);
+		// Every change gets a new modification time, like a real file system
+		m_fileChanges++;
+		fileModifiedTimes.put(filename, Long.valueOf(m_fileChanges));
+	}
+
+	/**
+	 * @param port The PWM port number the motor was created on
+	 * @return The simulated motor on the port
+	 */
+	public SimMotor getMotor(int port)
+	{
+		return motors[port];
+	}
+
+	/**
+	 * @param portA The port number of the encoder's A channel
+	 * @return The simulated encoder on the port
+	 */
+	public SimEncoder getEncoder(int portA)
+	{
+		return encoders[portA];
+	}
+
+	/**
+	 * @param port The port number the analog input was created on
+	 * @return The simulated analog input on the port
+	 */
+	public SimAnalog getAnalogInput(int port)
+	{
+		return analogInputs[port];
+	}
+
+	/**
+	 * @param port The port number the digital input was created on
+	 * @return The simulated digital input on the port
+	 */
+	public SimDigital getDigitalInput(int port)
+	{
+		return digitalInputs[port];
+	}
+
+	public SimDriverInput getDriverInput()
+	{
+		return driverInput;
+	}
+
+	public SimDisplay getDriverDisplay()
+	{
+		return driverDisplay;
+	}
+
+	public SimClock getClock()
+	{
+		return clock;
+	}
+}
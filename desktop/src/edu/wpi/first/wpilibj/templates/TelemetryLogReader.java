@@ -0,0 +1,321 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Streams through a telemetry log written by TelemetryWriter, decoding one
+ * sample at a time from a memory-mapped view of the file.
+ */
+public class TelemetryLogReader
+{
+	static final int INTS = TelemetryBuffer.IntField.count;
+	static final int DOUBLES = TelemetryBuffer.DoubleField.count;
+
+	ByteBuffer data;
+	int m_version;
+	int m_intCount;
+	int m_doubleCount;
+	long[] m_previous;
+	int[] ints;
+	double[] doubles;
+	int m_samples;
+
+	/**
+	 * The samples of a whole log held as one array per field
+	 */
+	public static class Columns
+	{
+		int m_length;
+		int[][] ints = new int[INTS][];
+		double[][] doubles = new double[DOUBLES][];
+
+		/**
+		 * @return The number of samples
+		 */
+		public int length()
+		{
+			return m_length;
+		}
+
+		/**
+		 * @param field The field from TelemetryBuffer.IntField
+		 * @return The field's value in every sample
+		 */
+		public int[] getInts(int field)
+		{
+			return ints[field];
+		}
+
+		/**
+		 * @param field The field from TelemetryBuffer.DoubleField
+		 * @return The field's value in every sample
+		 */
+		public double[] getDoubles(int field)
+		{
+			return doubles[field];
+		}
+	}
+
+	/**
+	 * Maps a log file into memory and reads its header
+	 *
+	 * @param filename The name of the log file
+	 */
+	TelemetryLogReader(String filename) throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		try
+		{
+			FileChannel channel = file.getChannel();
+			init(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * Reads a log that is already in memory, such as one written in the
+	 * simulator
+	 *
+	 * @param data The bytes of the log
+	 */
+	TelemetryLogReader(ByteBuffer data) throws IOException
+	{
+		init(data);
+	}
+
+	void init(ByteBuffer data) throws IOException
+	{
+		this.data = data;
+		if(data.remaining() < 8 || data.get() != 'F' || data.get() != 'R'
+				|| data.get() != 'C' || data.get() != 'T')
+		{
+			throw new IOException("Not a telemetry log");
+		}
+		m_version = data.get();
+		m_intCount = data.get();
+		m_doubleCount = data.get();
+		if(m_version != TelemetryEncoder.VERSION)
+		{
+			throw new IOException("Unknown telemetry log version "
+					+ m_version);
+		}
+		// The keyframe interval is only needed for seeking
+		data.get();
+		m_previous = new long[m_intCount + m_doubleCount];
+		ints = new int[Math.max(INTS, m_intCount)];
+		doubles = new double[Math.max(DOUBLES, m_doubleCount)];
+	}
+
+	/**
+	 * Decodes the next sample into the ints and doubles arrays
+	 *
+	 * @return False if there are no more complete samples
+	 */
+	boolean next()
+	{
+		if(!data.hasRemaining())
+		{
+			return false;
+		}
+		int start = data.position();
+		try
+		{
+			int type = data.get();
+			int fields = m_intCount + m_doubleCount;
+			long changed;
+			if(type == TelemetryEncoder.KEYFRAME)
+			{
+				changed = -1L;
+				for(int i = 0; i < fields; i++)
+				{
+					m_previous[i] = 0;
+				}
+			}
+			else if(type == TelemetryEncoder.DELTA)
+			{
+				changed = readVarint();
+			}
+			else
+			{
+				throw new IllegalStateException("Bad record type " + type
+						+ " at byte " + start);
+			}
+			for(int i = 0; i < fields; i++)
+			{
+				if((changed & (1L << i)) != 0)
+				{
+					m_previous[i] = undo(i, readVarint(), m_previous[i]);
+				}
+			}
+		}
+		catch(BufferUnderflowException e)
+		{
+			// The robot was turned off in the middle of writing a record
+			data.position(data.limit());
+			return false;
+		}
+		for(int i = 0; i < m_intCount; i++)
+		{
+			ints[i] = (int) m_previous[i];
+		}
+		for(int i = 0; i < m_doubleCount; i++)
+		{
+			long bits = m_previous[m_intCount + i];
+			doubles[i] = TelemetryEncoder.isTime(i) ? bits / 1000000.0
+					: Float.intBitsToFloat((int) bits);
+		}
+		m_samples++;
+		return true;
+	}
+
+	/**
+	 * Reverses TelemetryEncoder.difference
+	 */
+	long undo(int index, long written, long previous)
+	{
+		int doubleField = index - m_intCount;
+		if(doubleField >= 0 && !TelemetryEncoder.isTime(doubleField))
+		{
+			return written ^ previous;
+		}
+		long delta = (written >>> 1) ^ -(written & 1);
+		return previous + delta;
+	}
+
+	long readVarint()
+	{
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = data.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Writes every remaining sample as a line of comma separated values, with
+	 * a header line of the field names
+	 *
+	 * @param out Where to write the values
+	 */
+	void writeCsv(Writer out)
+	{
+		PrintWriter writer = new PrintWriter(out);
+		StringBuilder line = new StringBuilder();
+		for(int i = 0; i < m_intCount; i++)
+		{
+			line.append(TelemetryBuffer.IntField.names[i]).append(',');
+		}
+		for(int i = 0; i < m_doubleCount; i++)
+		{
+			line.append(TelemetryBuffer.DoubleField.names[i]);
+			line.append(i + 1 < m_doubleCount ? "," : "");
+		}
+		writer.println(line);
+		while(next())
+		{
+			line.setLength(0);
+			for(int i = 0; i < m_intCount; i++)
+			{
+				line.append(ints[i]).append(',');
+			}
+			for(int i = 0; i < m_doubleCount; i++)
+			{
+				line.append(doubles[i]);
+				line.append(i + 1 < m_doubleCount ? "," : "");
+			}
+			writer.println(line);
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Decodes every remaining sample into one array per field
+	 *
+	 * @return The columns of the log
+	 */
+	Columns readColumns()
+	{
+		int capacity = 1024;
+		Columns columns = new Columns();
+		for(int i = 0; i < INTS; i++)
+		{
+			columns.ints[i] = new int[capacity];
+		}
+		for(int i = 0; i < DOUBLES; i++)
+		{
+			columns.doubles[i] = new double[capacity];
+		}
+		int length = 0;
+		while(next())
+		{
+			if(length == capacity)
+			{
+				capacity *= 2;
+				for(int i = 0; i < INTS; i++)
+				{
+					columns.ints[i] = Arrays.copyOf(columns.ints[i],
+							capacity);
+				}
+				for(int i = 0; i < DOUBLES; i++)
+				{
+					columns.doubles[i] = Arrays.copyOf(
+							columns.doubles[i], capacity);
+				}
+			}
+			for(int i = 0; i < INTS; i++)
+			{
+				columns.ints[i][length] = ints[i];
+			}
+			for(int i = 0; i < DOUBLES; i++)
+			{
+				columns.doubles[i][length] = doubles[i];
+			}
+			length++;
+		}
+		columns.m_length = length;
+		return columns;
+	}
+
+	/**
+	 * Converts the log named by the first argument to CSV, written to the file
+	 * named by the second argument or printed if there is none
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		TelemetryLogReader reader = new TelemetryLogReader(args[0]);
+		if(args.length > 1)
+		{
+			Writer out = new FileWriter(args[1]);
+			try
+			{
+				reader.writeCsv(out);
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+		else
+		{
+			reader.writeCsv(new OutputStreamWriter(System.out));
+		}
+	}
+}
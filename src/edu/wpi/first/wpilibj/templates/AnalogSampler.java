@@ -0,0 +1,101 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Samples analog inputs far more often than the robot loop runs from its own
+ * thread and keeps each one's FilteredAnalog up to date, so a single noisy
+ * reading can no longer decide what the loop does. Anything else that needs
+ * every sample, such as the gyro's heading, can be added too.
+ */
+public class AnalogSampler implements Runnable
+{
+	// Time in milliseconds between samples of every input
+	static final int SAMPLEPERIOD = 1;
+
+	Sampled[] m_inputs;
+	int m_count;
+	Thread thread;
+	volatile boolean m_running;
+
+	/**
+	 * @param capacity The most inputs that will be added
+	 */
+	AnalogSampler(int capacity)
+	{
+		m_inputs = new Sampled[capacity];
+	}
+
+	/**
+	 * Adds an input to be sampled
+	 *
+	 * @param input The raw analog input
+	 * @param filter The filter from FilteredAnalog.Filter
+	 * @param window The number of samples filtered over
+	 * @return The filtered input, which the robot loop reads instead of the
+	 * raw one
+	 */
+	FilteredAnalog add(AnalogSensor input, int filter, int window)
+	{
+		FilteredAnalog filtered = new FilteredAnalog(input, filter, window);
+		add(filtered);
+		return filtered;
+	}
+
+	/**
+	 * Adds something to be updated on every sample
+	 *
+	 * @param sampled The input, which reads its own sensor
+	 */
+	void add(Sampled sampled)
+	{
+		m_inputs[m_count++] = sampled;
+	}
+
+	/**
+	 * Starts the thread that samples the inputs, without it the inputs are
+	 * only sampled when sample() is called
+	 *
+	 * @param priority The thread priority, which should be above the robot
+	 * loop's so samples stay evenly spaced
+	 */
+	void start(int priority)
+	{
+		m_running = true;
+		thread = new Thread(this);
+		thread.setPriority(priority);
+		thread.start();
+	}
+
+	/**
+	 * Stops the thread after its next sample
+	 */
+	void stop()
+	{
+		m_running = false;
+	}
+
+	/**
+	 * Takes one sample of every input
+	 */
+	void sample()
+	{
+		for(int i = 0; i < m_count; i++)
+		{
+			m_inputs[i].sample();
+		}
+	}
+
+	public void run()
+	{
+		while(m_running)
+		{
+			sample();
+			try
+			{
+				Thread.sleep(SAMPLEPERIOD);
+			}
+			catch(InterruptedException e)
+			{
+			}
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * An analog input, implemented by an AnalogChannel on the robot and by a
+ * settable value in simulation
+ */
+public interface AnalogSensor
+{
+	/**
+	 * Gets the raw value of the analog input
+	 *
+	 * @return The raw value read from the analog to digital converter
+	 */
+	int getValue();
+}
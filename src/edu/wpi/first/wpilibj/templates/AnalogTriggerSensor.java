@@ -0,0 +1,18 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A digital input made from an analog input crossing a threshold, implemented
+ * by an AnalogTrigger on the robot so the FPGA compares every sample
+ */
+public interface AnalogTriggerSensor extends DigitalSensor
+{
+	/**
+	 * Sets the values at which the state changes, the state becomes true once
+	 * the value is at or above the upper limit and false once it is below the
+	 * lower limit
+	 *
+	 * @param lower The raw value below which the state is false
+	 * @param upper The raw value at or above which the state is true
+	 */
+	void setLimits(int lower, int upper);
+}
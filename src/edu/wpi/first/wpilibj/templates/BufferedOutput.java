@@ -0,0 +1,86 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A motor controller whose power is only sent to the Talon when an
+ * OutputBatch is flushed at the end of the loop, and only if it changed or
+ * hasn't been sent for a while. Code running outside the robot loop, such as
+ * a watcher cutting a motor, flushes the output itself so it acts at once.
+ */
+public class BufferedOutput implements SpeedOutput
+{
+	SpeedOutput output;
+	Clock clock;
+
+	// These are only used while holding the lock on this object
+	double m_power;
+	double m_written = Double.NaN;
+	double m_writeTime;
+
+	/**
+	 * @param output The Talon the power is sent to
+	 * @param clock The clock the time since the last write is measured with
+	 */
+	BufferedOutput(SpeedOutput output, Clock clock)
+	{
+		this.output = output;
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the power to send at the next flush
+	 */
+	public synchronized void set(double power)
+	{
+		m_power = power;
+	}
+
+	/**
+	 * @return The power last set, which may not have been sent yet
+	 */
+	public synchronized double get()
+	{
+		return m_power;
+	}
+
+	/**
+	 * Sends the power if it has changed since it was last sent or the last
+	 * send was at least refreshPeriod ago
+	 *
+	 * @param time The current time
+	 * @param refreshPeriod The longest time in seconds to go without sending
+	 * @return True if the power was sent
+	 */
+	synchronized boolean write(double time, double refreshPeriod)
+	{
+		if(m_power == m_written && time - m_writeTime < refreshPeriod)
+		{
+			return false;
+		}
+		output.set(m_power);
+		m_written = m_power;
+		m_writeTime = time;
+		return true;
+	}
+
+	/**
+	 * Sends the power now if it has changed, for code that runs outside the
+	 * robot loop
+	 */
+	synchronized void flush()
+	{
+		if(m_power != m_written)
+		{
+			write(clock.getTime(), 0);
+		}
+	}
+
+	/**
+	 * Sends 0 to the Talon now, the power set is kept and sent again at the
+	 * next flush of the batch even if it hasn't changed
+	 */
+	synchronized void stop()
+	{
+		output.set(0.0);
+		m_written = Double.NaN;
+	}
+}
@@ -0,0 +1,73 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A table of commands bound to the press or release of joystick buttons. The
+ * table is allocated up front and a command only runs on the loop its button
+ * changes, so holding a button doesn't repeat it every loop.
+ */
+public class ButtonCommands
+{
+	/**
+	 * Holds the edges a command can be bound to
+	 */
+	public static class Edge
+	{
+		public static final int pressed = 0,
+				released = 1;
+	}
+
+	int[] m_masks;
+	int[] m_edges;
+	Runnable[] m_commands;
+	int m_count;
+
+	/**
+	 * @param capacity The most commands that will be bound
+	 */
+	ButtonCommands(int capacity)
+	{
+		m_masks = new int[capacity];
+		m_edges = new int[capacity];
+		m_commands = new Runnable[capacity];
+	}
+
+	/**
+	 * Binds a command to a button, commands run in the order they are bound
+	 *
+	 * @param button The number of the button, starting at 1
+	 * @param edge The edge from ButtonCommands.Edge
+	 * @param command The command to run
+	 */
+	void bind(int button, int edge, Runnable command)
+	{
+		m_masks[m_count] = 1 << (button - 1);
+		m_edges[m_count] = edge;
+		m_commands[m_count] = command;
+		m_count++;
+	}
+
+	/**
+	 * Runs the commands of the buttons pressed and released since the last
+	 * dispatch and takes those edges from the snapshot
+	 *
+	 * @param snapshot The driver station inputs of the current loop
+	 */
+	void dispatch(JoystickSnapshot snapshot)
+	{
+		int pressed = snapshot.m_pressed;
+		int released = snapshot.m_released;
+		snapshot.clearEdges();
+		if((pressed | released) == 0)
+		{
+			return;
+		}
+		for(int i = 0; i < m_count; i++)
+		{
+			int edges = m_edges[i] == Edge.pressed ? pressed : released;
+			if((edges & m_masks[i]) != 0)
+			{
+				m_commands[i].run();
+			}
+		}
+	}
+}
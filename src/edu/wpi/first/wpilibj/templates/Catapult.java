@@ -1,36 +1,57 @@
 package edu.wpi.first.wpilibj.templates;
 
-import edu.wpi.first.wpilibj.Talon;
-import edu.wpi.first.wpilibj.Encoder;
-import edu.wpi.first.wpilibj.Timer;
-
 /**
  * Controls the two motors that power the catapult by utilizing inputs from the
  * encoder on the gearbox attached to the motors
  */
-public class Catapult
+public class Catapult implements StateMachine.Behavior
 {
-	Talon motorOneTalon, motorTwoTalon;
-	Encoder catapultEncoder;
-	Timer loweringTimer;
+	BufferedOutput motorOneTalon, motorTwoTalon;
+	EncoderSensor catapultEncoder;
+	FiringWatcher firingWatcher;
+	ShotRecorder shotRecorder = new ShotRecorder();
+	CycleClock clock;
+	StateMachine states;
 
-	int m_firingState;
 	int m_stoppingClicks;
 	double m_motorPower;
+	double m_loweringPower;
+	double m_loweringTime;
+	double m_autonomousLoweringPower;
+	double m_autonomousLoweringTime;
 
 	/**
-	 * Holds the state values for the m_firingState state machine
+	 * Holds the state values for the catapult's state machine
 	 */
-	public class CatapultState
+	public static class CatapultState
 	{
 		public static final int waiting = 0,
 				firing = 1,
 				lowering = 2,
 				zeroing = 3,
 				autonomousLowering = 4;
+
+		static final String[] names =
+		{
+			"waiting", "firing", "lowering", "zeroing", "autonomousLowering"
+		};
+	}
+
+	/**
+	 * Holds the guards of the catapult's state machine
+	 */
+	public static class CatapultGuard
+	{
+		public static final int cutOff = 0;
+
+		static final String[] names = {"cutOff"};
 	}
 
 	/**
+	 * @param hardware The hardware the catapult's Talons and encoder are
+	 * created from
+	 * @param clock The loop's clock the lowering is timed with
+	 * @param outputs The batch the catapult's Talons are sent with
 	 * @param talonOnePort The port number for the talon that controls the first
 	 * of the catapult's two motors
 	 * @param talonTwoPort The port number for the talon that controls the
@@ -40,16 +61,50 @@ public class Catapult
 	 * @param encoderPortB The port number for the connection of the encoder's
 	 * yellow wire
 	 */
-	Catapult(int talonOnePort, int talonTwoPort, int encoderPortA,
+	Catapult(Hardware hardware, CycleClock clock, OutputBatch outputs,
+			int talonOnePort, int talonTwoPort, int encoderPortA,
 			int encoderPortB)
 	{
-		motorOneTalon = new Talon(talonOnePort);
-		motorTwoTalon = new Talon(talonTwoPort);
-		catapultEncoder = new Encoder(encoderPortA, encoderPortB, true);
-		loweringTimer = new Timer();
-		loweringTimer.start();
-		catapultEncoder.start();
-		m_firingState = CatapultState.waiting;
+		motorOneTalon = outputs.motor(talonOnePort);
+		motorTwoTalon = outputs.motor(talonTwoPort);
+		catapultEncoder = hardware.encoder(encoderPortA, encoderPortB, true);
+		this.clock = clock;
+		// The watcher times the coast from its own thread
+		firingWatcher = new FiringWatcher(motorOneTalon, motorTwoTalon,
+				catapultEncoder, hardware.clock());
+		states = new StateMachine("Catapult", CatapultState.names,
+				CatapultGuard.names, 2, clock, this, CatapultState.waiting);
+		// Fires until the motors are cut, then lowers and zeroes the arm,
+		// lowering and autonomousLowering time out once their settings are
+		// applied
+		states.addTransition(CatapultState.firing, CatapultGuard.cutOff,
+				CatapultState.lowering);
+		states.addTransition(CatapultState.zeroing, StateMachine.ALWAYS,
+				CatapultState.waiting);
+	}
+
+	/**
+	 * Copies the catapult's lowering powers and times and the predictive
+	 * cutoff from the settings
+	 *
+	 * @param settings The settings to copy from
+	 */
+	void applySettings(Settings settings)
+	{
+		m_loweringPower = settings.getDouble(Settings.Key.catapultLoweringPower);
+		m_loweringTime = settings.getDouble(Settings.Key.catapultLoweringTime);
+		m_autonomousLoweringPower
+				= settings.getDouble(Settings.Key.autonomousLoweringPower);
+		m_autonomousLoweringTime
+				= settings.getDouble(Settings.Key.autonomousLoweringTime);
+		states.setTimeout(CatapultState.lowering, m_loweringTime,
+				CatapultState.zeroing);
+		states.setTimeout(CatapultState.autonomousLowering,
+				m_autonomousLoweringTime, CatapultState.zeroing);
+		firingWatcher.setPrediction(
+				settings.getInt(Settings.Key.catapultPredictiveCutoff) != 0,
+				settings.getDouble(Settings.Key.catapultCutoffLatency),
+				settings.getDouble(Settings.Key.catapultCoastDeceleration));
 	}
 
 	/**
@@ -57,7 +112,9 @@ public class Catapult
 	 */
 	void reInit()
 	{
-		m_firingState = CatapultState.waiting;
+		firingWatcher.disarm();
+		shotRecorder.cancel();
+		states.command(CatapultState.waiting);
 	}
 
 	/**
@@ -65,7 +122,13 @@ public class Catapult
 	 */
 	void fire()
 	{
-		m_firingState = CatapultState.firing;
+		// Pulling the trigger again during a shot is still one shot
+		if(!shotRecorder.isRecording())
+		{
+			shotRecorder.begin(clock.getTime());
+		}
+		firingWatcher.arm(m_stoppingClicks);
+		states.command(CatapultState.firing);
 	}
 
 	/**
@@ -73,7 +136,9 @@ public class Catapult
 	 */
 	void autonomousLower()
 	{
-		m_firingState = CatapultState.autonomousLowering;
+		firingWatcher.disarm();
+		shotRecorder.cancel();
+		states.command(CatapultState.autonomousLowering);
 	}
 
 	/**
@@ -113,15 +178,14 @@ public class Catapult
 	}
 
 	/**
-	 * Gets the integer that represents the current state of the m_firingstate
+	 * Gets the integer that represents the current state of the catapult's
 	 * state machine
 	 *
-	 * @return An integer from 0 to 4 that corrresponds to the state of the
-	 * m_firingState state machine
+	 * @return An integer from 0 to 4 that corrresponds to a CatapultState
 	 */
 	int getState()
 	{
-		return m_firingState;
+		return states.getState();
 	}
 
 	/**
@@ -133,21 +197,43 @@ public class Catapult
 	}
 
 	/**
-	 * Resets the value of the lowering timer to 0
+	 * Runs the state machine for the catapult and controls all of the
+	 * catapult's motors, must be called every loop for the catapult to operate.
+	 * The firing watcher still reads the encoder itself, so the motors are cut
+	 * from the latest count.
+	 *
+	 * @param sensors The sensor values read at the start of the loop
 	 */
-	void resetLoweringTimer()
+	void idle(SensorSnapshot sensors)
 	{
-		loweringTimer.reset();
+		shotRecorder.record(sensors.m_time, sensors.m_encoderCount);
+		states.update();
 	}
 
-	/**
-	 * Handles the state machine for the catapult and controls all of the
-	 * catapult's motors, must be called every loop for the catapult to operate
-	 */
-	void idle()
+	public boolean check(StateMachine machine, int guard)
+	{
+		// The only guard is cutOff, the firing watcher may have cut the
+		// motors between loops
+		return firingWatcher.isCutOff();
+	}
+
+	public void enter(StateMachine machine, int state, double time)
+	{
+		switch(state)
+		{
+			case CatapultState.lowering:
+				shotRecorder.markCutoff(time, m_stoppingClicks);
+				break;
+
+			case CatapultState.zeroing:
+				shotRecorder.markLowered(time);
+				break;
+		}
+	}
+
+	public void run(StateMachine machine, int state)
 	{
-		// The state machine that controls the catapult
-		switch(m_firingState)
+		switch(state)
 		{
 			// Waits to receive a command, motors are set to 0
 			case CatapultState.waiting:
@@ -158,52 +244,27 @@ public class Catapult
 			/* Powers the motors at a previously defined power until
 			 the previously defined number of clicks is reached */
 			case CatapultState.firing:
-				if(catapultEncoder.get() < m_stoppingClicks)
-				{
-					motorOneTalon.set(m_motorPower);
-					motorTwoTalon.set(m_motorPower);
-				}
-				else
-				{
-					motorOneTalon.set(0.0);
-					motorTwoTalon.set(0.0);
-					loweringTimer.reset();
-					m_firingState = CatapultState.lowering;
-				}
+				firingWatcher.drive(m_motorPower, m_stoppingClicks);
 				break;
 
 			// After the catapult is fired, the arm is lowered back down
 			case CatapultState.lowering:
-				if(loweringTimer.get() < 1.25)
-				{
-					motorOneTalon.set(-0.07);
-					motorTwoTalon.set(-0.07);
-				}
-				else
-				{
-					m_firingState = CatapultState.zeroing;
-				}
+				motorOneTalon.set(m_loweringPower);
+				motorTwoTalon.set(m_loweringPower);
 				break;
 
 			/* After the the catapult arm is lowered, the encoder count is reset
 			 to 0 */
 			case CatapultState.zeroing:
+				shotRecorder.finish();
 				catapultEncoder.reset();
-				m_firingState = CatapultState.waiting;
 				break;
 
 			/* Lowers the arm more aggresively, used at the start of autonomous
 			 to unfold the robot */
 			case CatapultState.autonomousLowering:
-				if((loweringTimer.get() < 0.5))
-				{
-					motorOneTalon.set(-0.3);
-					motorTwoTalon.set(-0.3);
-				}
-				else
-				{
-					m_firingState = CatapultState.zeroing;
-				}
+				motorOneTalon.set(m_autonomousLoweringPower);
+				motorTwoTalon.set(m_autonomousLoweringPower);
 				break;
 		}
 	}
@@ -1,20 +1,46 @@
 package edu.wpi.first.wpilibj.templates;
 
-import edu.wpi.first.wpilibj.RobotDrive;
-import edu.wpi.first.wpilibj.Talon;
-
 /**
- * Controls the power of the drive motor
+ * Controls the power of the drive motor. In field oriented mode the joystick
+ * moves the robot relative to the field instead of to the way it faces, by
+ * rotating the joystick vector by the robot's heading.
  */
 public class Chassis
 {
-	RobotDrive drivetrain;
+	SpeedOutput leftFrontTalon, leftRearTalon, rightFrontTalon, rightRearTalon;
 
 	double m_xValue;
 	double m_yValue;
 	double m_twistValue;
+	boolean m_fieldOriented;
+	double m_heading;
+	boolean m_rotationSet;
+	double m_rotation;
+	// The inputs the wheel powers were last mixed from
+	boolean m_mixed;
+	double m_mixedX;
+	double m_mixedY;
+	double m_mixedTwist;
+	boolean m_mixedRotationSet;
+	boolean m_mixedFieldOriented;
+	double m_mixedHeading;
+	// Preallocated so that mixing does not create garbage every loop
+	double[] m_wheelSpeeds = new double[4];
+
+	/**
+	 * Holds the indexes of each wheel in m_wheelSpeeds
+	 */
+	public static class Wheel
+	{
+		public static final int leftFront = 0,
+				leftRear = 1,
+				rightFront = 2,
+				rightRear = 3;
+	}
 
 	/**
+	 * @param outputs The batch the chassis' Talons are created in and sent
+	 * with
 	 * @param leftFrontTalonPort The port number for the talon that controls the
 	 * left front drive motor
 	 * @param leftRearTalonPort The port number for the talon that controls the
@@ -24,20 +50,14 @@ public class Chassis
 	 * @param rightRearTalonPort The port number for the talon that controls the
 	 * right rear drive motor
 	 */
-	Chassis(int leftFrontTalonPort, int leftRearTalonPort,
-			int rightFrontTalonPort, int rightRearTalonPort)
+	Chassis(OutputBatch outputs, int leftFrontTalonPort,
+			int leftRearTalonPort, int rightFrontTalonPort,
+			int rightRearTalonPort)
 	{
-		Talon leftFrontTalon, leftRearTalon, rightFrontTalon, rightRearTalon;
-		leftFrontTalon = new Talon(leftFrontTalonPort);
-		leftRearTalon = new Talon(leftRearTalonPort);
-		rightFrontTalon = new Talon(rightFrontTalonPort);
-		rightRearTalon = new Talon(rightRearTalonPort);
-		drivetrain = new RobotDrive(leftFrontTalon, leftRearTalon,
-				rightFrontTalon, rightRearTalon);
-		drivetrain.setInvertedMotor(RobotDrive.MotorType.kFrontLeft, true);
-		drivetrain.setInvertedMotor(RobotDrive.MotorType.kRearLeft, true);
-		drivetrain.setInvertedMotor(RobotDrive.MotorType.kFrontRight, false);
-		drivetrain.setInvertedMotor(RobotDrive.MotorType.kRearRight, false);
+		leftFrontTalon = outputs.motor(leftFrontTalonPort);
+		leftRearTalon = outputs.motor(leftRearTalonPort);
+		rightFrontTalon = outputs.motor(rightFrontTalonPort);
+		rightRearTalon = outputs.motor(rightRearTalonPort);
 	}
 
 	/**
@@ -54,15 +74,57 @@ public class Chassis
 		m_xValue = -(x);
 		m_yValue = -(y);
 		m_twistValue = -(twist);
+		m_rotationSet = false;
+	}
+
+	/**
+	 * Sets the rotation power directly instead of from the twist, such as to
+	 * hold the heading, until the joystick data is set again. Unlike the
+	 * twist it isn't mapped quadratically.
+	 *
+	 * @param rotation The rotation power, positive is clockwise
+	 */
+	void setRotation(double rotation)
+	{
+		m_rotation = rotation;
+		m_rotationSet = true;
 	}
 
 	/**
-	 * Maps the joystick inputs quadratically and then passes the mapped values
-	 * to the drivetrain object, this must be called every loop for the chassis
-	 * to operate
+	 * @param fieldOriented True to drive relative to the field
+	 * @param heading The robot's heading in degrees clockwise from downfield,
+	 * only used in field oriented mode
+	 */
+	void setFieldOriented(boolean fieldOriented, double heading)
+	{
+		m_fieldOriented = fieldOriented;
+		m_heading = heading;
+	}
+
+	/**
+	 * Maps the joystick inputs quadratically and then mixes the mapped values
+	 * into the power of each wheel, this must be called every loop for the
+	 * chassis to operate. Nothing is done if the inputs haven't changed since
+	 * the last loop.
 	 */
 	void idle()
 	{
+		double twist = m_rotationSet ? m_rotation : m_twistValue;
+		if(m_mixed && m_xValue == m_mixedX && m_yValue == m_mixedY
+				&& twist == m_mixedTwist
+				&& m_rotationSet == m_mixedRotationSet
+				&& m_fieldOriented == m_mixedFieldOriented
+				&& (!m_fieldOriented || m_heading == m_mixedHeading))
+		{
+			return;
+		}
+		m_mixed = true;
+		m_mixedX = m_xValue;
+		m_mixedY = m_yValue;
+		m_mixedTwist = twist;
+		m_mixedRotationSet = m_rotationSet;
+		m_mixedFieldOriented = m_fieldOriented;
+		m_mixedHeading = m_heading;
 		double mappedX;
 		double mappedY;
 		double mappedTwist;
@@ -84,7 +146,11 @@ public class Chassis
 		{
 			mappedY = m_yValue * m_yValue;
 		}
-		if(m_twistValue < 0)
+		if(m_rotationSet)
+		{
+			mappedTwist = m_rotation;
+		}
+		else if(m_twistValue < 0)
 		{
 			mappedTwist = -(m_twistValue * m_twistValue);
 		}
@@ -92,8 +158,50 @@ public class Chassis
 		{
 			mappedTwist = m_twistValue * m_twistValue;
 		}
-		/* Inputs the mapped values into the cartesian mecanum drive method of
-		 the drivetrain object, which will set the power of the Talons for us */
-		drivetrain.mecanumDrive_Cartesian(mappedX, mappedY, mappedTwist, 0.0);
+		if(m_fieldOriented)
+		{
+			/* Turns the direction the driver wants to go on the field into
+			 the robot's frame, the strafe is along the robot's right and y
+			 is negative along its front */
+			double radians = Math.toRadians(m_heading);
+			double cos = Math.cos(radians);
+			double sin = Math.sin(radians);
+			double fieldX = mappedX;
+			mappedX = fieldX * cos + mappedY * sin;
+			mappedY = mappedY * cos - fieldX * sin;
+		}
+		mecanumDrive(mappedX, mappedY, mappedTwist);
+	}
+
+	/**
+	 * Mixes the x, y and rotation powers into the power of each mecanum wheel
+	 * and sets the Talons, this is the same math as the cartesian mecanum drive
+	 * of WPILib's RobotDrive with the left side motors inverted
+	 *
+	 * @param x The strafing power, positive is to the right
+	 * @param y The forward power, negative is forward like the joystick
+	 * @param rotation The rotation power, positive is clockwise
+	 */
+	void mecanumDrive(double x, double y, double rotation)
+	{
+		// The y axis of the joystick is negative when pushed forward
+		y = -y;
+		m_wheelSpeeds[Wheel.leftFront] = x + y + rotation;
+		m_wheelSpeeds[Wheel.rightFront] = -x + y - rotation;
+		m_wheelSpeeds[Wheel.leftRear] = -x + y + rotation;
+		m_wheelSpeeds[Wheel.rightRear] = x + y - rotation;
+		// Scales all of the wheels down if any of them is above full power
+		double maxMagnitude = 1.0;
+		for(int i = 0; i < m_wheelSpeeds.length; i++)
+		{
+			if(Math.abs(m_wheelSpeeds[i]) > maxMagnitude)
+			{
+				maxMagnitude = Math.abs(m_wheelSpeeds[i]);
+			}
+		}
+		leftFrontTalon.set(-(m_wheelSpeeds[Wheel.leftFront] / maxMagnitude));
+		leftRearTalon.set(-(m_wheelSpeeds[Wheel.leftRear] / maxMagnitude));
+		rightFrontTalon.set(m_wheelSpeeds[Wheel.rightFront] / maxMagnitude);
+		rightRearTalon.set(m_wheelSpeeds[Wheel.rightRear] / maxMagnitude);
 	}
 }
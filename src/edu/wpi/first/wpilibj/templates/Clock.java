@@ -0,0 +1,15 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A source of time, implemented by the FPGA timestamp on the robot and by a
+ * manually advanced virtual time in simulation
+ */
+public interface Clock
+{
+	/**
+	 * Gets the current time
+	 *
+	 * @return The current time in seconds
+	 */
+	double getTime();
+}
@@ -1,30 +1,41 @@
 package edu.wpi.first.wpilibj.templates;
 
-import edu.wpi.first.wpilibj.Talon;
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.AnalogChannel;
-
 /**
  * Controls the motors of the collector by utilizing the input from the ball
  * detecting infared sensor and the limit switch at the bottom of the
- * collector's motion
+ * collector's motion. The limit switch and a trigger on the ball sensor are
+ * also watched by EdgeWatchers, so the automatic mode moves on as soon as the
+ * arm reaches the bottom or the ball comes in rather than at the next loop.
  */
-public class Collector
+public class Collector implements EdgeListener, StateMachine.Behavior
 {
-	Talon liftingTalon, rollerTalon;
-	AnalogChannel ballSensor;
-	DigitalInput lowerLimitSensor;
-	Timer timer;
+	BufferedOutput liftingTalon, rollerTalon;
+	FilteredAnalog ballSensor;
+	AnalogTriggerSensor ballTrigger;
+	DigitalSensor lowerLimitSensor;
+	EdgeWatcher limitWatcher, ballWatcher;
+	CycleClock clock;
+	StateMachine modes, substates;
+	SensorSnapshot sensors;
 
-	int m_collectorMode;
-	int m_collectorAutoSubstate;
 	int m_manualRaiseDirection;
 	double m_manualRollerPower;
 	double m_automaticRollerPower;
+	int m_ballSensorThreshold;
+	double m_loweringPower;
+	double m_raisingPower;
+	double m_waitForBallTime;
+	double m_raisingTime;
+	double m_manualRaiseUpPower;
+	double m_manualRaiseDownPower;
+	double m_assistedRaisePower;
+	// The guards the watchers have taken between loops, as bits, and when,
+	// indexed by guard, so they can be logged and replayed
+	int m_edges;
+	double[] m_edgeTimes = new double[2];
 
 	/**
-	 * Holds the state values for the m_collectorMode state machine
+	 * Holds the state values for the collector's mode state machine
 	 */
 	public static class CollectorMode
 	{
@@ -32,10 +43,15 @@ public class Collector
 				disabled = 1,
 				manualRoller = 2,
 				manualRaise = 3;
+
+		static final String[] names =
+		{
+			"automatic", "disabled", "manualRoller", "manualRaise"
+		};
 	}
 
 	/**
-	 * Holds the state values for the m_collectorAutoSubstate state machine
+	 * Holds the state values for the automatic mode's substate machine
 	 */
 	public static class CollectorAutoSubstate
 	{
@@ -44,38 +60,115 @@ public class Collector
 				waitForBall = 2,
 				raising = 3,
 				mellowRaise = 4;
+
+		static final String[] names =
+		{
+			"lowering", "waiting", "waitForBall", "raising", "mellowRaise"
+		};
+	}
+
+	/**
+	 * Holds the guards of the automatic mode's substate machine
+	 */
+	public static class CollectorGuard
+	{
+		public static final int lowerLimitReached = 0,
+				ballSeen = 1;
+
+		static final String[] names = {"lowerLimitReached", "ballSeen"};
 	}
 
 	/**
+	 * @param hardware The hardware the collector's Talons and sensors are
+	 * created from
+	 * @param clock The loop's clock the substates are timed with
+	 * @param sampler The sampler that filters the ball sensor
+	 * @param outputs The batch the collector's Talons are sent with
 	 * @param liftingTalonPort The port number for the talon that controls the
 	 * collector's arm's motors
 	 * @param rollerTalonPort The port number for the talon that controls the
 	 * collector's roller's motor
 	 * @param ballSensorPort The port number for the infared sensor that detects
 	 * how far the ball is into the collector
+	 * @param ballSensorWindow The number of samples of the ball sensor the
+	 * median is taken over
 	 * @param lowerLimitSensorPort The port number for the limit swtich that
 	 * detects when the collector is at the bottom of its motion
 	 */
-	Collector(int liftingTalonPort, int rollerTalonPort, int ballSensorPort,
-			int lowerLimitSensorPort)
+	Collector(Hardware hardware, CycleClock clock, AnalogSampler sampler,
+			OutputBatch outputs,
+			int liftingTalonPort, int rollerTalonPort, int ballSensorPort,
+			int ballSensorWindow, int lowerLimitSensorPort)
 	{
-		liftingTalon = new Talon(liftingTalonPort);
-		rollerTalon = new Talon(rollerTalonPort);
-		ballSensor = new AnalogChannel(ballSensorPort);
-		lowerLimitSensor = new DigitalInput(lowerLimitSensorPort);
-		timer = new Timer();
-		timer.start();
-		m_collectorMode = CollectorMode.disabled;
+		liftingTalon = outputs.motor(liftingTalonPort);
+		rollerTalon = outputs.motor(rollerTalonPort);
+		ballSensor = sampler.add(hardware.analogInput(ballSensorPort),
+				FilteredAnalog.Filter.median, ballSensorWindow);
+		ballTrigger = hardware.analogTrigger(ballSensorPort);
+		lowerLimitSensor = hardware.digitalInput(lowerLimitSensorPort);
+		limitWatcher = new EdgeWatcher(lowerLimitSensor, this);
+		ballWatcher = new EdgeWatcher(ballTrigger, this);
+		this.clock = clock;
+		// The modes only change on commands from the driver
+		modes = new StateMachine("Collector", CollectorMode.names,
+				new String[0], 0, clock, this, CollectorMode.disabled);
+		// Lowers the arm to the limit switch, runs the roller until the ball
+		// is seen and a little longer, then raises the arm for a fixed time,
+		// waitForBall and raising time out once the settings are applied
+		substates = new StateMachine("Collector automatic",
+				CollectorAutoSubstate.names, CollectorGuard.names, 2, clock,
+				this, CollectorAutoSubstate.lowering);
+		substates.addTransition(CollectorAutoSubstate.lowering,
+				CollectorGuard.lowerLimitReached, CollectorAutoSubstate.waiting);
+		substates.addTransition(CollectorAutoSubstate.waiting,
+				CollectorGuard.ballSeen, CollectorAutoSubstate.waitForBall);
+	}
+
+	/**
+	 * Copies the collector's powers, times and ball sensor threshold from the
+	 * settings
+	 *
+	 * @param settings The settings to copy from
+	 */
+	synchronized void applySettings(Settings settings)
+	{
+		m_ballSensorThreshold
+				= settings.getInt(Settings.Key.ballSensorThreshold);
+		// The trigger needs a window of at least one count, the FPGA rejects
+		// limits that cross
+		int hysteresis = settings.getInt(Settings.Key.ballSensorHysteresis);
+		if(hysteresis < 1)
+		{
+			hysteresis = 1;
+		}
+		ballTrigger.setLimits(m_ballSensorThreshold - hysteresis,
+				m_ballSensorThreshold);
+		m_loweringPower = settings.getDouble(Settings.Key.collectorLoweringPower);
+		m_raisingPower = settings.getDouble(Settings.Key.collectorRaisingPower);
+		m_waitForBallTime
+				= settings.getDouble(Settings.Key.collectorWaitForBallTime);
+		m_raisingTime = settings.getDouble(Settings.Key.collectorRaisingTime);
+		substates.setTimeout(CollectorAutoSubstate.waitForBall,
+				m_waitForBallTime, CollectorAutoSubstate.raising);
+		substates.setTimeout(CollectorAutoSubstate.raising, m_raisingTime,
+				CollectorAutoSubstate.lowering);
+		m_manualRaiseUpPower
+				= settings.getDouble(Settings.Key.manualRaiseUpPower);
+		m_manualRaiseDownPower
+				= settings.getDouble(Settings.Key.manualRaiseDownPower);
+		m_assistedRaisePower
+				= settings.getDouble(Settings.Key.assistedRaisePower);
 	}
 
 	/**
 	 * Sets the mode of the collector to automatic and sets the automatic mode's
-	 * substate to lowering
+	 * substate to lowering, which starts the cycle over if it was already
+	 * automatic
 	 */
-	void run()
+	synchronized void run()
 	{
-		m_collectorMode = CollectorMode.automatic;
-		m_collectorAutoSubstate = CollectorAutoSubstate.lowering;
+		modes.command(CollectorMode.automatic);
+		substates.command(CollectorAutoSubstate.lowering);
 	}
 
 	/**
@@ -85,11 +178,11 @@ public class Collector
 	 * @param manualRollerPower The power at which the motor controlling the
 	 * roller will be run when the collector is in manualRoller mode
 	 */
-	void manualRoller(int manualRollerPower)
+	synchronized void manualRoller(int manualRollerPower)
 	{
 		if(manualRollerPower != 0)
 		{
-			m_collectorMode = CollectorMode.manualRoller;
+			modes.command(CollectorMode.manualRoller);
 			m_manualRollerPower = manualRollerPower;
 		}
 		else
@@ -105,7 +198,7 @@ public class Collector
 	 * @param automaticRollerPower The power at which the motor controlling the
 	 * roller will be run when the collector is in automatic mode
 	 */
-	void setAutomaticRollerPower(double automaticRollerPower)
+	synchronized void setAutomaticRollerPower(double automaticRollerPower)
 	{
 		m_automaticRollerPower = automaticRollerPower;
 	}
@@ -113,9 +206,25 @@ public class Collector
 	/**
 	 * Sets the collector's mode to disabled.
 	 */
-	void disable()
+	synchronized void disable()
+	{
+		modes.command(CollectorMode.disabled);
+	}
+
+	/**
+	 * @return The collector's mode, a CollectorMode
+	 */
+	synchronized int getMode()
+	{
+		return modes.getState();
+	}
+
+	/**
+	 * @return The automatic mode's substate, a CollectorAutoSubstate
+	 */
+	synchronized int getSubstate()
 	{
-		m_collectorMode = CollectorMode.disabled;
+		return substates.getState();
 	}
 
 	/**
@@ -124,7 +233,7 @@ public class Collector
 	 */
 	void assistedManualRaise()
 	{
-		liftingTalon.set(0.3);
+		liftingTalon.set(m_assistedRaisePower);
 	}
 
 	/**
@@ -134,11 +243,11 @@ public class Collector
 	 * @param direction The direction the arm will be moved: -1 causes it to
 	 * move down, 0 causes no motion, and 1 causes the arm to move up
 	 */
-	void manualRaise(int direction)
+	synchronized void manualRaise(int direction)
 	{
 		if(direction != 0)
 		{
-			m_collectorMode = CollectorMode.manualRaise;
+			modes.command(CollectorMode.manualRaise);
 			m_manualRaiseDirection = direction;
 		}
 		else
@@ -148,89 +257,133 @@ public class Collector
 	}
 
 	/**
-	 * Controls the collector's states and sets all motor powers, must be called
-	 * every loop for the collector to operate
+	 * Moves the automatic mode on as soon as the arm reaches the bottom or the
+	 * ball reaches the ball sensor, called from the watchers' threads
 	 */
-	void idle()
+	public synchronized void onEdge(DigitalSensor sensor, boolean state)
 	{
-		// Controls the different modes of the collector
-		switch(m_collectorMode)
+		if(modes.getState() != CollectorMode.automatic)
 		{
-			case CollectorMode.automatic:
+			return;
+		}
+		// The limit switch reads false once the arm is at the bottom, the
+		// substates are timed from the edge itself rather than the start of
+		// the loop
+		if(sensor == lowerLimitSensor && !state
+				&& substates.getState() == CollectorAutoSubstate.lowering)
+		{
+			takeEdge(CollectorGuard.lowerLimitReached,
+					CollectorAutoSubstate.waiting);
+		}
+		else if(sensor == ballTrigger && state
+				&& substates.getState() == CollectorAutoSubstate.waiting)
+		{
+			takeEdge(CollectorGuard.ballSeen,
+					CollectorAutoSubstate.waitForBall);
+		}
+		// Sent now rather than at the end of the next loop
+		liftingTalon.flush();
+		rollerTalon.flush();
+	}
 
-				// Controls the states of the automatic mode of the collector
-				switch(m_collectorAutoSubstate)
-				{
-					// Lowers the collector until it hits the lower limit switch	
-					case CollectorAutoSubstate.lowering:
-						if(lowerLimitSensor.get())
-						{
-							liftingTalon.set(-0.4);
-							rollerTalon.set(0.0);
-						}
-						else
-						{
-							m_collectorAutoSubstate
-									= CollectorAutoSubstate.waiting;
-						}
-						break;
-
-					/* Waits for the ball to be pulled into the collector far
-					 enough so that the arm can be raised */
-					case CollectorAutoSubstate.waiting:
-						if(ballSensor.getValue() < 300)
-						{
-							liftingTalon.set(0.0);
-							rollerTalon.set(m_automaticRollerPower);
-						}
-						else
-						{
-							timer.reset();
-							timer.start();
-							m_collectorAutoSubstate
-									= CollectorAutoSubstate.waitForBall;
-						}
-						break;
-
-					/* Waits a little bit of extra time so that the ball is
-					 fully in the collector. This state is necessary because of
-					 where the ball sensor is placed within the collector. */
-					case CollectorAutoSubstate.waitForBall:
-						if(timer.get() < 0.3)
-						{
-							liftingTalon.set(0.0);
-							rollerTalon.set(m_automaticRollerPower);
-						}
-						else
-						{
-							timer.reset();
-							timer.start();
-							m_collectorAutoSubstate
-									= CollectorAutoSubstate.raising;
-						}
-						break;
-
-					// Raises the arm so that the ball can enter the catapult 
-					case CollectorAutoSubstate.raising:
-						if(timer.get() < 0.75)
-						{
-							liftingTalon.set(0.6);
-							rollerTalon.set(m_automaticRollerPower);
-						}
-						else
-						{
-							m_collectorAutoSubstate
-									= CollectorAutoSubstate.lowering;
-						}
-						break;
-				}
+	void takeEdge(int guard, int substate)
+	{
+		double time = clock.now();
+		substates.transition(substate, guard, time);
+		m_edges |= 1 << guard;
+		m_edgeTimes[guard] = time;
+	}
+
+	/**
+	 * Hands over the guards the watchers have taken since the last call, so
+	 * they can be logged
+	 *
+	 * @param times Filled with the time each guard was taken, indexed by
+	 * CollectorGuard
+	 * @return A bit for each CollectorGuard that was taken, 1 << guard
+	 */
+	synchronized int takeEdges(double[] times)
+	{
+		int edges = m_edges;
+		times[CollectorGuard.lowerLimitReached]
+				= m_edgeTimes[CollectorGuard.lowerLimitReached];
+		times[CollectorGuard.ballSeen] = m_edgeTimes[CollectorGuard.ballSeen];
+		m_edges = 0;
+		return edges;
+	}
+
+	/**
+	 * Runs the collector's state machines and sets all motor powers, must be
+	 * called every loop for the collector to operate
+	 *
+	 * @param sensors The sensor values read at the start of the loop
+	 */
+	synchronized void idle(SensorSnapshot sensors)
+	{
+		this.sensors = sensors;
+		modes.update();
+	}
+
+	public boolean check(StateMachine machine, int guard)
+	{
+		switch(guard)
+		{
+			case CollectorGuard.lowerLimitReached:
+				return !sensors.m_lowerLimit;
+
+			default:
+				return sensors.m_ballSensor >= m_ballSensorThreshold;
+		}
+	}
+
+	public void enter(StateMachine machine, int state, double time)
+	{
+		if(machine == modes)
+		{
+			/* The substates start over from lowering, so the time spent in
+			 the other modes isn't counted as part of a substate */
+			if(state == CollectorMode.automatic)
+			{
+				substates.reset(CollectorAutoSubstate.lowering);
+			}
+			return;
+		}
+		switch(state)
+		{
+			/* Stops the arm at the bottom and runs the roller until the ball
+			 sensor sees the ball, or a little longer once it has */
+			case CollectorAutoSubstate.waiting:
+			case CollectorAutoSubstate.waitForBall:
+				liftingTalon.set(0.0);
+				rollerTalon.set(m_automaticRollerPower);
 				break;
+		}
+	}
 
-			// Disables all motors and stops the timer
+	public void run(StateMachine machine, int state)
+	{
+		if(machine == modes)
+		{
+			runMode(state);
+		}
+		else
+		{
+			runSubstate(state);
+		}
+	}
+
+	void runMode(int mode)
+	{
+		switch(mode)
+		{
+			case CollectorMode.automatic:
+				substates.update();
+				break;
+
+			// Disables all motors
 			case CollectorMode.disabled:
 				liftingTalon.set(0.0);
 				rollerTalon.set(0.0);
-				timer.stop();
 				break;
 
 			/* Stops the lifting talon and takes manual input from the driver
@@ -245,11 +398,11 @@ public class Collector
 			case CollectorMode.manualRaise:
 				if(m_manualRaiseDirection < 0)
 				{
-					liftingTalon.set(0.45);
+					liftingTalon.set(m_manualRaiseUpPower);
 				}
 				else if(m_manualRaiseDirection > 0)
 				{
-					liftingTalon.set(-0.4);
+					liftingTalon.set(m_manualRaiseDownPower);
 				}
 				else
 				{
@@ -258,4 +411,33 @@ public class Collector
 				break;
 		}
 	}
+
+	void runSubstate(int substate)
+	{
+		switch(substate)
+		{
+			// Lowers the collector until it hits the lower limit switch
+			case CollectorAutoSubstate.lowering:
+				liftingTalon.set(m_loweringPower);
+				rollerTalon.set(0.0);
+				break;
+
+			/* Waits for the ball to be pulled into the collector far enough
+			 so that the arm can be raised, then waits a little bit of extra
+			 time so that the ball is fully in the collector. The extra time
+			 is necessary because of where the ball sensor is placed within
+			 the collector. */
+			case CollectorAutoSubstate.waiting:
+			case CollectorAutoSubstate.waitForBall:
+				liftingTalon.set(0.0);
+				rollerTalon.set(m_automaticRollerPower);
+				break;
+
+			// Raises the arm so that the ball can enter the catapult
+			case CollectorAutoSubstate.raising:
+				liftingTalon.set(m_raisingPower);
+				rollerTalon.set(m_automaticRollerPower);
+				break;
+		}
+	}
 }
@@ -0,0 +1,69 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Holds one time for the whole robot loop, read from another clock once when
+ * the loop starts. Everything the loop times is measured from that time, so
+ * a state that lasts a set time ends on the same loop however long the loop
+ * takes, and a replay on the virtual clock of the simulated hardware makes
+ * every timed transition the robot made. Code that runs outside the loop,
+ * such as the watcher threads, reads the underlying clock with now().
+ */
+public class CycleClock implements Clock
+{
+	Clock source;
+	volatile double m_time;
+
+	/**
+	 * @param source The clock read at the start of each loop, the FPGA
+	 * timestamp on the robot and the virtual clock in simulation
+	 */
+	CycleClock(Clock source)
+	{
+		this.source = source;
+		m_time = source.getTime();
+	}
+
+	/**
+	 * Reads the time for a new loop, called once at the start of the loop
+	 */
+	void tick()
+	{
+		m_time = source.getTime();
+	}
+
+	/**
+	 * @return The time the current loop started, in seconds
+	 */
+	public double getTime()
+	{
+		return m_time;
+	}
+
+	/**
+	 * @return The time right now from the underlying clock, for code that
+	 * runs outside the loop
+	 */
+	double now()
+	{
+		return source.getTime();
+	}
+
+	/**
+	 * @param seconds The time from the start of the current loop
+	 * @return The time that is that far after the start of the current loop
+	 */
+	double deadline(double seconds)
+	{
+		return m_time + seconds;
+	}
+
+	/**
+	 * @param deadline A time such as one from deadline(), or a time from
+	 * getTime() in an earlier loop plus how long to wait from then
+	 * @return True if the current loop started at or after the deadline
+	 */
+	boolean isPast(double deadline)
+	{
+		return m_time >= deadline;
+	}
+}
@@ -0,0 +1,23 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A digital input such as a limit switch, implemented by a DigitalInput on the
+ * robot and by a settable value in simulation
+ */
+public interface DigitalSensor
+{
+	/**
+	 * Gets the state of the digital input
+	 *
+	 * @return True if the input is high, false if it is low
+	 */
+	boolean get();
+
+	/**
+	 * Blocks the calling thread until the input changes state, using an
+	 * interrupt on the robot
+	 *
+	 * @param timeout The longest time in seconds to wait
+	 */
+	void waitForEdge(double timeout);
+}
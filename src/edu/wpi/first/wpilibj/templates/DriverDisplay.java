@@ -0,0 +1,29 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * The user lines of the driver station LCD, implemented by the
+ * DriverStationLCD on the robot and by in-memory lines in simulation
+ */
+public interface DriverDisplay
+{
+	/**
+	 * Clears all of the lines on the display
+	 */
+	void clear();
+
+	/**
+	 * Writes text to one of the lines on the display, the text will not be
+	 * shown until updateLCD is called
+	 *
+	 * @param line The number of the user line, from 1 to 6
+	 * @param startingColumn The column to start writing at, starting at 1
+	 * @param text The text to write to the line, passing a StringBuffer lets
+	 * the caller reuse it instead of creating a String every loop
+	 */
+	void println(int line, int startingColumn, StringBuffer text);
+
+	/**
+	 * Sends the lines that have been written to the driver station
+	 */
+	void updateLCD();
+}
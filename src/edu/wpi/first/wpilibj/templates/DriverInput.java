@@ -0,0 +1,40 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * The inputs from the driver station, a joystick and the digital inputs,
+ * implemented by the Joystick and DriverStation on the robot and by settable
+ * values in simulation
+ */
+public interface DriverInput
+{
+	/**
+	 * Gets the value of one of the joystick's axes
+	 *
+	 * @param axis The number of the axis, starting at 1
+	 * @return The value of the axis from -1.0 to 1.0
+	 */
+	double getRawAxis(int axis);
+
+	/**
+	 * Gets the state of one of the joystick's buttons
+	 *
+	 * @param button The number of the button, starting at 1
+	 * @return True if the button is held down
+	 */
+	boolean getRawButton(int button);
+
+	/**
+	 * Gets the state of all of the joystick's buttons at once
+	 *
+	 * @return A bitmask of the buttons held down, bit 0 is button 1
+	 */
+	int getButtons();
+
+	/**
+	 * Gets the state of one of the driver station's digital inputs
+	 *
+	 * @param channel The number of the digital input, starting at 1
+	 * @return True if the digital input is on
+	 */
+	boolean getDigitalIn(int channel);
+}
@@ -0,0 +1,15 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Receives the changes of a digital input seen by an EdgeWatcher
+ */
+public interface EdgeListener
+{
+	/**
+	 * Called from the watcher's thread as soon as the input changes
+	 *
+	 * @param sensor The input that changed
+	 * @param state The input's new state
+	 */
+	void onEdge(DigitalSensor sensor, boolean state);
+}
@@ -0,0 +1,73 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Waits on a digital input's interrupt from its own thread and tells a
+ * listener as soon as the input changes, instead of the change being found
+ * the next time the robot loop reads the input
+ */
+public class EdgeWatcher implements Runnable
+{
+	// Longest time in seconds the thread waits, so it notices being stopped
+	static final double TIMEOUT = 0.1;
+
+	DigitalSensor sensor;
+	EdgeListener listener;
+	Thread thread;
+	volatile boolean m_running;
+	boolean m_state;
+
+	/**
+	 * @param sensor The input to watch
+	 * @param listener Where the changes of the input are sent
+	 */
+	EdgeWatcher(DigitalSensor sensor, EdgeListener listener)
+	{
+		this.sensor = sensor;
+		this.listener = listener;
+		m_state = sensor.get();
+	}
+
+	/**
+	 * Starts the thread that waits for the input to change, without it the
+	 * input is only checked when poll() is called
+	 *
+	 * @param priority The thread priority, such as Thread.MAX_PRIORITY
+	 */
+	void start(int priority)
+	{
+		m_running = true;
+		thread = new Thread(this);
+		thread.setPriority(priority);
+		thread.start();
+	}
+
+	/**
+	 * Stops the thread the next time its wait ends
+	 */
+	void stop()
+	{
+		m_running = false;
+	}
+
+	/**
+	 * Tells the listener if the input has changed since it was last checked
+	 */
+	synchronized void poll()
+	{
+		boolean state = sensor.get();
+		if(state != m_state)
+		{
+			m_state = state;
+			listener.onEdge(sensor, state);
+		}
+	}
+
+	public void run()
+	{
+		while(m_running)
+		{
+			sensor.waitForEdge(TIMEOUT);
+			poll();
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A quadrature encoder that counts "clicks", implemented by an Encoder on the
+ * robot and by a settable count in simulation
+ */
+public interface EncoderSensor
+{
+	/**
+	 * Gets the number of "clicks" the encoder has accumulated
+	 *
+	 * @return The current count of the encoder
+	 */
+	int get();
+
+	/**
+	 * Gets how fast the encoder is turning
+	 *
+	 * @return The rate in "clicks" per second
+	 */
+	double getRate();
+
+	/**
+	 * Resets the current count of the encoder to 0
+	 */
+	void reset();
+}
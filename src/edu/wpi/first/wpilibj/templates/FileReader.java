@@ -1,39 +1,173 @@
 package edu.wpi.first.wpilibj.templates;
 
 import com.sun.squawk.microedition.io.FileConnection;
-import com.sun.squawk.io.BufferedReader;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.Vector;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import javax.microedition.io.Connector;
 
 /**
- * Reads the contents of a text file into a vector
+ * Opens files on the cRIO's flash for reading and writing
  */
 public class FileReader
 {
 	/**
-	 * Reads the contents of the file into a vector with each line placed into
-	 * its own element
+	 * A stream of a file's contents that also closes the file's connection
+	 * when it is closed
 	 */
-	public static Vector getFileContents(String filename)
+	static class FileInputStream extends InputStream
+	{
+		FileConnection file;
+		InputStream input;
+
+		FileInputStream(FileConnection file, InputStream input)
+		{
+			this.file = file;
+			this.input = input;
+		}
+
+		public int read() throws IOException
+		{
+			return input.read();
+		}
+
+		public int read(byte[] buffer, int offset, int length)
+				throws IOException
+		{
+			return input.read(buffer, offset, length);
+		}
+
+		public void close() throws IOException
+		{
+			try
+			{
+				input.close();
+			}
+			finally
+			{
+				file.close();
+			}
+		}
+	}
+
+	/**
+	 * A stream that writes to a file and also closes the file's connection
+	 * when it is closed
+	 */
+	static class FileOutputStream extends OutputStream
+	{
+		FileConnection file;
+		OutputStream output;
+
+		FileOutputStream(FileConnection file, OutputStream output)
+		{
+			this.file = file;
+			this.output = output;
+		}
+
+		public void write(int b) throws IOException
+		{
+			output.write(b);
+		}
+
+		public void write(byte[] buffer, int offset, int length)
+				throws IOException
+		{
+			output.write(buffer, offset, length);
+		}
+
+		public void flush() throws IOException
+		{
+			output.flush();
+		}
+
+		public void close() throws IOException
+		{
+			try
+			{
+				output.close();
+			}
+			finally
+			{
+				file.close();
+			}
+		}
+	}
+
+	/**
+	 * Opens a file for reading, the stream must be closed when done so the
+	 * file's connection is closed too
+	 *
+	 * @param filename The name of the file
+	 * @return A stream of the file's contents
+	 */
+	public static InputStream openInputStream(String filename)
+			throws IOException
+	{
+		String path = "file:///" + filename;
+		FileConnection file
+				= (FileConnection) Connector.open(path, Connector.READ);
+		try
+		{
+			return new FileInputStream(file, file.openInputStream());
+		}
+		catch(IOException e)
+		{
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates a file, or deletes and recreates it if it already exists, and
+	 * opens it for writing, the stream must be closed when done so the file's
+	 * connection is closed too
+	 *
+	 * @param filename The name of the file
+	 * @return A stream that writes to the file
+	 */
+	public static OutputStream openOutputStream(String filename)
+			throws IOException
+	{
+		String path = "file:///" + filename;
+		FileConnection file
+				= (FileConnection) Connector.open(path, Connector.READ_WRITE);
+		try
+		{
+			if(file.exists())
+			{
+				file.delete();
+			}
+			file.create();
+			return new FileOutputStream(file, file.openOutputStream());
+		}
+		catch(IOException e)
+		{
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the time the file was last modified from the file system, without
+	 * opening the file's contents
+	 *
+	 * @param filename The name of the file
+	 * @return The time the file was last modified, or 0 if it doesn't exist
+	 */
+	public static long getModifiedTime(String filename)
 	{
 		String path = "file:///" + filename;
 		FileConnection file = null;
-		BufferedReader reader = null;
-		Vector contents = null;
+		long modifiedTime = 0;
 		try
 		{
 			file = (FileConnection) Connector.open(path, Connector.READ);
-			reader = new BufferedReader(
-					new InputStreamReader(file.openInputStream()));
-			contents = new Vector();
-			String line = "";
-			while((line = reader.readLine()) != null)
+			if(file.exists())
 			{
-				contents.addElement(line);
+				modifiedTime = file.lastModified();
 			}
 		}
 		catch(IOException e)
@@ -44,10 +178,6 @@ public class FileReader
 		{
 			try
 			{
-				if(reader != null)
-				{
-					reader.close();
-				}
 				if(file != null)
 				{
 					file.close();
@@ -58,6 +188,6 @@ public class FileReader
 				ex.printStackTrace();
 			}
 		}
-		return contents;
+		return modifiedTime;
 	}
 }
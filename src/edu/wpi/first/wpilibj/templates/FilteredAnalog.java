@@ -0,0 +1,130 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Filters the samples of an analog input taken by an AnalogSampler with a
+ * moving average or a moving median over a short window. Each sample updates
+ * the filter in a fixed number of steps without allocating. The filtered
+ * value is published in a volatile field that only the sampling thread
+ * writes, so the robot loop reads the latest value without waiting on a lock.
+ */
+public class FilteredAnalog implements AnalogSensor, Sampled
+{
+	/**
+	 * Holds the kinds of filter
+	 */
+	public static class Filter
+	{
+		public static final int average = 0,
+				median = 1;
+	}
+
+	AnalogSensor input;
+	int m_filter;
+	int[] m_window;
+	// The window's values in order, only kept for the median
+	int[] m_sorted;
+	int m_next;
+	int m_sum;
+
+	volatile int m_latest;
+	volatile int m_samples;
+
+	/**
+	 * @param input The raw analog input
+	 * @param filter The filter from FilteredAnalog.Filter
+	 * @param window The number of samples filtered over
+	 */
+	FilteredAnalog(AnalogSensor input, int filter, int window)
+	{
+		this.input = input;
+		m_filter = filter;
+		m_window = new int[window];
+		m_sorted = new int[window];
+		// Starts from the current value instead of ramping up from 0
+		int value = input.getValue();
+		for(int i = 0; i < window; i++)
+		{
+			m_window[i] = value;
+			m_sorted[i] = value;
+		}
+		m_sum = value * window;
+		m_latest = value;
+	}
+
+	/**
+	 * Reads the input, updates the filter and publishes the filtered value,
+	 * called only from the sampling thread
+	 */
+	public void sample()
+	{
+		int value = input.getValue();
+		int oldest = m_window[m_next];
+		m_window[m_next] = value;
+		m_next = (m_next + 1) % m_window.length;
+		if(m_filter == Filter.average)
+		{
+			m_sum += value - oldest;
+			// Rounded, the raw values are never negative
+			publish((m_sum + m_window.length / 2) / m_window.length);
+		}
+		else
+		{
+			replaceSorted(oldest, value);
+			publish(m_sorted[m_window.length / 2]);
+		}
+	}
+
+	/**
+	 * Swaps a value in the sorted window for a new one, shifting the values
+	 * between them so the window stays in order
+	 */
+	void replaceSorted(int oldest, int value)
+	{
+		int[] sorted = m_sorted;
+		int i = 0;
+		while(sorted[i] != oldest)
+		{
+			i++;
+		}
+		while(i > 0 && sorted[i - 1] > value)
+		{
+			sorted[i] = sorted[i - 1];
+			i--;
+		}
+		while(i < sorted.length - 1 && sorted[i + 1] < value)
+		{
+			sorted[i] = sorted[i + 1];
+			i++;
+		}
+		sorted[i] = value;
+	}
+
+	/**
+	 * Makes a value the latest one, used by the sampling thread and to feed a
+	 * logged value back in a replay
+	 *
+	 * @param value The filtered value
+	 */
+	void publish(int value)
+	{
+		m_latest = value;
+		m_samples++;
+	}
+
+	/**
+	 * @return The latest filtered value
+	 */
+	public int getValue()
+	{
+		return m_latest;
+	}
+
+	/**
+	 * @return The number of values published, which stops going up if the
+	 * sampling thread stops
+	 */
+	int getSamples()
+	{
+		return m_samples;
+	}
+}
@@ -0,0 +1,297 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Watches the catapult's encoder while it fires and cuts both of its motors
+ * as soon as the stopping point is reached. A high priority thread polls the
+ * encoder every millisecond while a shot is armed and sleeps otherwise, so
+ * where the shot stops no longer depends on how often the robot loop runs.
+ * The robot loop drives the motors through this class so that it can never
+ * turn them back on after the thread has cut them.
+ *
+ * In predictive mode the motors are cut early, when the click the arm will
+ * coast to reaches the stopping point. The coast is predicted from the
+ * encoder rate, the time the Talons take to act on the cut and how quickly
+ * the arm then slows. Both are measured while the arm coasts after each shot
+ * and blended into the values used for the next one.
+ */
+public class FiringWatcher implements Runnable
+{
+	// Time in milliseconds between polls of the encoder while firing
+	static final int POLLPERIOD = 1;
+	// Fraction of each shot's measured latency and deceleration blended in
+	static final double LEARNINGRATE = 0.3;
+	// Longest time in seconds the arm is watched while it coasts
+	static final double MAXCOASTTIME = 0.5;
+	// Shots cut at a slower rate in clicks per second aren't learned from
+	static final double MINLEARNINGRATE = 100;
+
+	BufferedOutput motorOneTalon, motorTwoTalon;
+	EncoderSensor catapultEncoder;
+	Clock clock;
+	Thread thread;
+	volatile boolean m_running;
+
+	// These are only used while holding the lock on this object
+	boolean m_armed;
+	boolean m_cutOff;
+	boolean m_coasting;
+	boolean m_slowing;
+	boolean m_predictive;
+	int m_stoppingClicks;
+	int m_cutCount;
+	int m_peakCount;
+	double m_cutRate;
+	double m_cutTime;
+	double m_measuredLatency;
+	double m_latency;
+	double m_deceleration;
+	// The settings the learned values started from
+	double m_latencySeed = Double.NaN;
+	double m_decelerationSeed = Double.NaN;
+
+	/**
+	 * @param motorOneTalon The first of the catapult's motors
+	 * @param motorTwoTalon The second of the catapult's motors
+	 * @param catapultEncoder The encoder on the catapult's gearbox
+	 * @param clock The clock the coast after a cut is timed with
+	 */
+	FiringWatcher(BufferedOutput motorOneTalon, BufferedOutput motorTwoTalon,
+			EncoderSensor catapultEncoder, Clock clock)
+	{
+		this.motorOneTalon = motorOneTalon;
+		this.motorTwoTalon = motorTwoTalon;
+		this.catapultEncoder = catapultEncoder;
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts the thread that polls the encoder while a shot is armed, without
+	 * it the encoder is only checked when the robot loop drives the motors
+	 *
+	 * @param priority The thread priority, such as Thread.MAX_PRIORITY
+	 */
+	void start(int priority)
+	{
+		m_running = true;
+		thread = new Thread(this);
+		thread.setPriority(priority);
+		thread.start();
+	}
+
+	/**
+	 * Stops the thread the next time it wakes
+	 */
+	synchronized void stop()
+	{
+		m_running = false;
+		notify();
+	}
+
+	/**
+	 * Sets up predictive cutoff. The learned latency and deceleration start
+	 * over from the given values only if they differ from the ones last
+	 * given, so reloading the settings for another key keeps what was learned.
+	 *
+	 * @param predictive True to cut early so the arm coasts to the stopping
+	 * point, false to cut when the arm reaches it
+	 * @param latency The time in seconds from a cut until the arm slows
+	 * @param deceleration How quickly the arm slows once it does, in clicks
+	 * per second squared
+	 */
+	synchronized void setPrediction(boolean predictive, double latency,
+			double deceleration)
+	{
+		m_predictive = predictive;
+		if(latency != m_latencySeed || deceleration != m_decelerationSeed)
+		{
+			m_latencySeed = latency;
+			m_decelerationSeed = deceleration;
+			m_latency = latency;
+			m_deceleration = deceleration;
+		}
+	}
+
+	/**
+	 * Starts watching a new shot
+	 *
+	 * @param stoppingClicks The encoder count the arm should stop at
+	 */
+	synchronized void arm(int stoppingClicks)
+	{
+		m_stoppingClicks = stoppingClicks;
+		m_cutOff = false;
+		m_armed = true;
+		notify();
+	}
+
+	/**
+	 * Stops watching, such as when the catapult stops firing for another
+	 * reason
+	 */
+	synchronized void disarm()
+	{
+		m_armed = false;
+	}
+
+	/**
+	 * @param rate The encoder rate in clicks per second
+	 * @return The number of clicks the arm will move if the motors are cut now
+	 */
+	synchronized double predictCoast(double rate)
+	{
+		if(rate <= 0 || m_deceleration <= 0)
+		{
+			return 0;
+		}
+		return rate * m_latency + rate * rate / (2 * m_deceleration);
+	}
+
+	/**
+	 * Cuts the motors if the shot is armed and has reached the stopping
+	 * point, and measures the arm's coast after a cut
+	 *
+	 * @return True if the motors have been cut for the current shot
+	 */
+	synchronized boolean poll()
+	{
+		if(m_armed)
+		{
+			check();
+		}
+		else if(m_coasting)
+		{
+			watchCoast();
+		}
+		return m_cutOff;
+	}
+
+	/**
+	 * Sets the motors to the firing power unless the shot has reached its
+	 * stopping point, called by the robot loop while firing
+	 *
+	 * @param power The power to fire with
+	 * @param stoppingClicks The encoder count the arm should stop at, which
+	 * the driver can change during a shot
+	 * @return False once the motors have been cut
+	 */
+	synchronized boolean drive(double power, int stoppingClicks)
+	{
+		m_stoppingClicks = stoppingClicks;
+		// Checked even if the shot was never armed, so the loop alone still
+		// stops the catapult
+		if(!m_cutOff)
+		{
+			check();
+		}
+		if(m_cutOff)
+		{
+			return false;
+		}
+		motorOneTalon.set(power);
+		motorTwoTalon.set(power);
+		return true;
+	}
+
+	/**
+	 * @return True once the motors have been cut for the current shot
+	 */
+	synchronized boolean isCutOff()
+	{
+		return m_cutOff;
+	}
+
+	void check()
+	{
+		int count = catapultEncoder.get();
+		double rate = catapultEncoder.getRate();
+		double coast = m_predictive ? predictCoast(rate) : 0;
+		if(count + coast < m_stoppingClicks)
+		{
+			return;
+		}
+		motorOneTalon.set(0.0);
+		motorTwoTalon.set(0.0);
+		// Cut at once instead of at the end of the loop
+		motorOneTalon.flush();
+		motorTwoTalon.flush();
+		m_cutOff = true;
+		m_armed = false;
+		// Firing again while the arm still coasts doesn't restart the
+		// measurement of the first cut
+		if(!m_coasting)
+		{
+			m_coasting = true;
+			m_slowing = false;
+			m_cutCount = count;
+			m_peakCount = count;
+			m_cutRate = rate;
+			m_cutTime = clock.getTime();
+			m_measuredLatency = 0;
+			notify();
+		}
+	}
+
+	/**
+	 * Follows the arm after a cut until it stops rising, then corrects the
+	 * latency and deceleration from what it did
+	 */
+	void watchCoast()
+	{
+		double elapsed = clock.getTime() - m_cutTime;
+		int count = catapultEncoder.get();
+		double rate = catapultEncoder.getRate();
+		if(count > m_peakCount)
+		{
+			m_peakCount = count;
+		}
+		if(!m_slowing && rate < m_cutRate)
+		{
+			m_slowing = true;
+			m_measuredLatency = elapsed;
+		}
+		if(rate > 0 && elapsed < MAXCOASTTIME)
+		{
+			return;
+		}
+		m_coasting = false;
+		if(!m_slowing || m_cutRate < MINLEARNINGRATE)
+		{
+			return;
+		}
+		m_latency += LEARNINGRATE * (m_measuredLatency - m_latency);
+		double braking = m_peakCount - m_cutCount - m_cutRate * m_latency;
+		if(braking > 0)
+		{
+			double deceleration = m_cutRate * m_cutRate / (2 * braking);
+			m_deceleration += LEARNINGRATE * (deceleration - m_deceleration);
+		}
+	}
+
+	public void run()
+	{
+		while(m_running)
+		{
+			synchronized(this)
+			{
+				while(!m_armed && !m_coasting && m_running)
+				{
+					try
+					{
+						wait();
+					}
+					catch(InterruptedException e)
+					{
+					}
+				}
+			}
+			poll();
+			try
+			{
+				Thread.sleep(POLLPERIOD);
+			}
+			catch(InterruptedException e)
+			{
+			}
+		}
+	}
+}
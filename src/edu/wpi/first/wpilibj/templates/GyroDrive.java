@@ -1,21 +1,31 @@
 package edu.wpi.first.wpilibj.templates;
 
-import edu.wpi.first.wpilibj.Timer;
-
 /**
  * Reduces unwanted rotation of mecanum chassis by using a gyro sensor and a PI
  * loop
  */
 public class GyroDrive
 {
-	static double error;
-	static double cummulativeError = 0;
-	static double adjustedRotationValue;
-	static double oldX = 0;
-	static double oldY = 0;
-	static double time;
-	static double oldTime = 0;
-	static double timeDifference;
+	Clock clock;
+	double error;
+	double cummulativeError = 0;
+	double adjustedRotationValue;
+	double oldX = 0;
+	double oldY = 0;
+	double time;
+	double oldTime = 0;
+	double timeDifference;
+
+	/**
+	 * Each GyroDrive keeps its own PI loop state, so several can be run at
+	 * once, such as when tuning the constants in simulation
+	 *
+	 * @param clock The clock the PI loop reads the system's time from
+	 */
+	GyroDrive(Clock clock)
+	{
+		this.clock = clock;
+	}
 
 	/**
 	 * Takes the current movement commands for the chassis, PI constants, and
@@ -31,12 +41,12 @@ public class GyroDrive
 	 * @param gyroValue The current value of the gyro sensor
 	 * @return The adjusted rotation value for correcting the robot's rotation
 	 */
-	static double getAdjustedRotationValue(double x, double y, double rotation,
+	double getAdjustedRotationValue(double x, double y, double rotation,
 			double pConstant, double Iconstant, double spinThreshold,
 			double gyroValue)
 	{
 		error = Math.abs(gyroValue);
-		time = Timer.getFPGATimestamp(); // Reads the system's time
+		time = clock.getTime(); // Reads the system's time
 		// If this is the first loop, set timeDifference to 0
 		if(oldTime == 0)
 		{
@@ -88,7 +98,7 @@ public class GyroDrive
 	/**
 	 * Resets the cummulativeError and oldTime variables
 	 */
-	static void reinit()
+	void reinit()
 	{
 		cummulativeError = 0;
 		oldTime = 0;
@@ -0,0 +1,156 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Turns the rate gyro's raw samples into the robot's heading. While the robot
+ * is disabled it isn't moving, so every sample is blended into an estimate of
+ * the gyro's value at rest, which follows the drift as the gyro warms up.
+ * While enabled the rate, less that estimate, is integrated into the heading
+ * on every sample the AnalogSampler takes, so the heading doesn't depend on
+ * how often the robot loop runs. Only a few numbers are kept however long the
+ * robot is disabled.
+ *
+ * The heading is in degrees clockwise from where it was last reset.
+ */
+public class GyroHeading implements Sampled
+{
+	// Samples further than this many counts from the estimate once it has
+	// settled are taken to be the robot being moved and are not blended in
+	static final double MAXBIASERROR = 10;
+	// Gaps between samples longer than this many seconds, such as when the
+	// sampling thread was held up, are not integrated
+	static final double MAXSAMPLEGAP = 0.05;
+
+	AnalogSensor input;
+	Clock clock;
+
+	// These are only used while holding the lock on this object
+	boolean m_calibrating = true;
+	double m_bias;
+	double m_countsPerDegree = 1;
+	double m_biasTimeConstant = 1;
+	double m_calibrationTime;
+	double m_lastTime = -1;
+	double m_rate;
+	double m_heading;
+
+	/**
+	 * @param input The raw gyro input, shared with its FilteredAnalog
+	 * @param clock The clock the time between samples is measured with
+	 */
+	GyroHeading(AnalogSensor input, Clock clock)
+	{
+		this.input = input;
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the gyro's constants
+	 *
+	 * @param center The value at rest to start from, only used until the
+	 * robot has been disabled long enough to estimate it
+	 * @param countsPerDegree The change in the raw value for each degree per
+	 * second the robot turns counterclockwise
+	 * @param biasTimeConstant The time in seconds the estimate of the value at
+	 * rest is averaged over
+	 */
+	synchronized void setConstants(double center, double countsPerDegree,
+			double biasTimeConstant)
+	{
+		if(m_calibrationTime == 0)
+		{
+			m_bias = center;
+		}
+		m_countsPerDegree = countsPerDegree;
+		m_biasTimeConstant = biasTimeConstant;
+	}
+
+	/**
+	 * @param calibrating True while the robot is disabled and not moving, so
+	 * samples correct the value at rest instead of turning the heading
+	 */
+	synchronized void setCalibrating(boolean calibrating)
+	{
+		m_calibrating = calibrating;
+	}
+
+	/**
+	 * Makes the current direction the robot faces a heading of 0
+	 */
+	synchronized void reset()
+	{
+		m_heading = 0;
+	}
+
+	public synchronized void sample()
+	{
+		double time = clock.getTime();
+		int value = input.getValue();
+		double dt = time - m_lastTime;
+		boolean first = m_lastTime < 0;
+		m_lastTime = time;
+		if(first || dt <= 0 || dt > MAXSAMPLEGAP)
+		{
+			return;
+		}
+		if(m_calibrating)
+		{
+			m_rate = 0;
+			boolean settled = m_calibrationTime >= m_biasTimeConstant;
+			if(settled && Math.abs(value - m_bias) > MAXBIASERROR)
+			{
+				return;
+			}
+			m_calibrationTime += dt;
+			// A plain average until the time constant has passed, so the
+			// first estimate doesn't lean on the center from the settings,
+			// then an exponential one that follows the drift
+			double weight = dt / (settled ? m_biasTimeConstant
+					: m_calibrationTime);
+			m_bias += (value - m_bias) * weight;
+			return;
+		}
+		// The value drops when the robot turns clockwise
+		m_rate = (m_bias - value) / m_countsPerDegree;
+		m_heading += m_rate * dt;
+	}
+
+	/**
+	 * Sets the heading, rate and value at rest, used to feed logged values
+	 * back in a replay
+	 *
+	 * @param heading The heading in degrees
+	 * @param rate The rate in degrees per second
+	 * @param bias The value at rest
+	 */
+	synchronized void publish(double heading, double rate, double bias)
+	{
+		m_heading = heading;
+		m_rate = rate;
+		m_bias = bias;
+	}
+
+	/**
+	 * @return The heading in degrees clockwise
+	 */
+	synchronized double getHeading()
+	{
+		return m_heading;
+	}
+
+	/**
+	 * @return The rate in degrees per second clockwise at the last sample,
+	 * 0 while calibrating
+	 */
+	synchronized double getRate()
+	{
+		return m_rate;
+	}
+
+	/**
+	 * @return The estimated raw value at rest
+	 */
+	synchronized double getBias()
+	{
+		return m_bias;
+	}
+}
@@ -0,0 +1,87 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Creates the actuators, sensors and clock used by the subsystems, so the same
+ * subsystem code can run on the robot or in a simulation on a desktop computer
+ */
+public interface Hardware
+{
+	/**
+	 * @param port The PWM port number of the motor controller
+	 * @return The motor controller on the port
+	 */
+	SpeedOutput motor(int port);
+
+	/**
+	 * @param portA The port number for the encoder's A channel
+	 * @param portB The port number for the encoder's B channel
+	 * @param reverse True if the encoder should count in the opposite
+	 * direction
+	 * @return The started encoder on the two ports
+	 */
+	EncoderSensor encoder(int portA, int portB, boolean reverse);
+
+	/**
+	 * @param port The port number of the analog input
+	 * @return The analog input on the port
+	 */
+	AnalogSensor analogInput(int port);
+
+	/**
+	 * @param port The port number of an analog input already created by
+	 * analogInput()
+	 * @return A trigger on the analog input
+	 */
+	AnalogTriggerSensor analogTrigger(int port);
+
+	/**
+	 * @param port The port number of the digital input
+	 * @return The digital input on the port
+	 */
+	DigitalSensor digitalInput(int port);
+
+	/**
+	 * @param joystickPort The driver station port number of the joystick
+	 * @return The joystick and digital inputs from the driver station
+	 */
+	DriverInput driverInput(int joystickPort);
+
+	/**
+	 * @return The driver station LCD
+	 */
+	DriverDisplay driverDisplay();
+
+	/**
+	 * @return The clock all of the subsystems read time from
+	 */
+	Clock clock();
+
+	/**
+	 * Opens a file for reading, the stream must be closed when done
+	 *
+	 * @param filename The name of the file
+	 * @return A stream of the file's contents
+	 */
+	InputStream openFile(String filename) throws IOException;
+
+	/**
+	 * Creates a file, or empties it if it already exists, and opens it for
+	 * writing, the stream must be closed when done
+	 *
+	 * @param filename The name of the file
+	 * @return A stream that writes to the file
+	 */
+	OutputStream createFile(String filename) throws IOException;
+
+	/**
+	 * Gets the time a file was last changed, without reading the file
+	 *
+	 * @param filename The name of the file
+	 * @return The time the file was last modified, or 0 if it does not exist
+	 */
+	long getFileModified(String filename);
+}
@@ -0,0 +1,69 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Keeps the robot facing the same way while the driver isn't twisting the
+ * joystick, using the heading integrated from the gyro. When the driver lets
+ * go of the twist the robot is left to stop turning on its own, and the
+ * heading it stops at is held with a PD loop until the driver twists again.
+ */
+public class HeadingHold
+{
+	// The heading to hold is taken once the robot turns slower than this, in
+	// degrees per second
+	static final double CAPTURERATE = 20;
+	// Largest rotation power used to correct the heading
+	static final double MAXROTATION = 0.5;
+
+	boolean m_holding;
+	boolean m_captured;
+	double m_targetHeading;
+
+	/**
+	 * Gets the rotation power that holds the heading, called every loop the
+	 * driver isn't twisting the joystick
+	 *
+	 * @param heading The robot's heading in degrees clockwise
+	 * @param rate The robot's rate of turn in degrees per second clockwise
+	 * @param pConstant The rotation power for each degree off the heading
+	 * @param dConstant The rotation power for each degree per second of turn
+	 * @return The rotation power, positive is clockwise
+	 */
+	double getRotation(double heading, double rate, double pConstant,
+			double dConstant)
+	{
+		if(!m_holding)
+		{
+			m_holding = true;
+			m_captured = false;
+		}
+		if(!m_captured)
+		{
+			if(Math.abs(rate) > CAPTURERATE)
+			{
+				return 0;
+			}
+			m_captured = true;
+			m_targetHeading = heading;
+		}
+		double rotation = (m_targetHeading - heading) * pConstant
+				- rate * dConstant;
+		if(rotation > MAXROTATION)
+		{
+			return MAXROTATION;
+		}
+		if(rotation < -MAXROTATION)
+		{
+			return -MAXROTATION;
+		}
+		return rotation;
+	}
+
+	/**
+	 * Stops holding the heading, called every loop the driver is twisting the
+	 * joystick or the hold isn't used
+	 */
+	void release()
+	{
+		m_holding = false;
+	}
+}
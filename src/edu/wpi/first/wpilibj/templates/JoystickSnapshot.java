@@ -0,0 +1,117 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Holds everything read from the driver station in one loop, so each input is
+ * read once per loop and every task sees the same values. The buttons and
+ * digital inputs are kept as bitmasks, bit 0 being button or input 1, and the
+ * buttons pressed and released since the edges were last taken are kept too,
+ * so a press that starts and ends between two runs of the driver's task
+ * isn't lost. Only the axes and digital inputs the robot uses are read, since
+ * each one is a separate call into the driver station.
+ */
+public class JoystickSnapshot
+{
+	// The joystick has 6 axes, numbered from 1
+	static final int AXES = 6;
+
+	int[] m_readAxes;
+	int[] m_readDigitalInputs;
+	double[] m_axes = new double[AXES + 1];
+	int m_buttons;
+	int m_digitalInputs;
+	int m_pressed;
+	int m_released;
+
+	/**
+	 * @param axes The numbers of the axes to read, the others stay 0
+	 * @param digitalInputs The numbers of the digital inputs to read, the
+	 * others stay off
+	 */
+	JoystickSnapshot(int[] axes, int[] digitalInputs)
+	{
+		m_readAxes = axes;
+		m_readDigitalInputs = digitalInputs;
+	}
+
+	/**
+	 * Reads the joystick and digital inputs, called once at the start of
+	 * every loop
+	 *
+	 * @param input The driver station to read
+	 */
+	void read(DriverInput input)
+	{
+		for(int i = 0; i < m_readAxes.length; i++)
+		{
+			int axis = m_readAxes[i];
+			m_axes[axis] = input.getRawAxis(axis);
+		}
+		int buttons = input.getButtons();
+		m_pressed |= buttons & ~m_buttons;
+		m_released |= m_buttons & ~buttons;
+		m_buttons = buttons;
+		int digitalInputs = 0;
+		for(int i = 0; i < m_readDigitalInputs.length; i++)
+		{
+			int channel = m_readDigitalInputs[i];
+			if(input.getDigitalIn(channel))
+			{
+				digitalInputs |= 1 << (channel - 1);
+			}
+		}
+		m_digitalInputs = digitalInputs;
+	}
+
+	/**
+	 * Forgets the buttons pressed and released so far, such as when a mode
+	 * starts with a button already held
+	 */
+	void clearEdges()
+	{
+		m_pressed = 0;
+		m_released = 0;
+	}
+
+	/**
+	 * @param axis The number of the axis, starting at 1
+	 * @return The value of the axis from -1.0 to 1.0
+	 */
+	double getAxis(int axis)
+	{
+		return m_axes[axis];
+	}
+
+	/**
+	 * @param button The number of the button, starting at 1
+	 * @return True if the button is held down
+	 */
+	boolean getButton(int button)
+	{
+		return (m_buttons & (1 << (button - 1))) != 0;
+	}
+
+	/**
+	 * @param channel The number of the digital input, starting at 1
+	 * @return True if the digital input is on
+	 */
+	boolean getDigitalIn(int channel)
+	{
+		return (m_digitalInputs & (1 << (channel - 1))) != 0;
+	}
+
+	/**
+	 * @return The buttons held down as a bitmask
+	 */
+	int getButtons()
+	{
+		return m_buttons;
+	}
+
+	/**
+	 * @return The digital inputs that are on as a bitmask
+	 */
+	int getDigitalInputs()
+	{
+		return m_digitalInputs;
+	}
+}
@@ -0,0 +1,127 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Counts durations into fixed width buckets that are all allocated up front,
+ * so that recording a duration never creates garbage
+ */
+public class LatencyHistogram
+{
+	// Width of each bucket in microseconds
+	static final int BUCKETWIDTH = 50;
+	// Enough buckets to cover two full 20 ms loops, the last one holds the rest
+	static final int BUCKETS = 801;
+
+	int[] m_buckets = new int[BUCKETS];
+	int m_count;
+	int m_overruns;
+	int m_maxMicros;
+	int m_budgetMicros;
+
+	/**
+	 * @param budget The time in seconds above which a duration is counted as
+	 * an overrun
+	 */
+	LatencyHistogram(double budget)
+	{
+		m_budgetMicros = (int) (budget * 1000000);
+	}
+
+	/**
+	 * Adds a duration to the histogram
+	 *
+	 * @param seconds The duration in seconds
+	 */
+	void record(double seconds)
+	{
+		int micros = (int) (seconds * 1000000);
+		if(micros < 0)
+		{
+			micros = 0;
+		}
+		int bucket = micros / BUCKETWIDTH;
+		if(bucket >= BUCKETS)
+		{
+			bucket = BUCKETS - 1;
+		}
+		m_buckets[bucket]++;
+		m_count++;
+		if(micros > m_budgetMicros)
+		{
+			m_overruns++;
+		}
+		if(micros > m_maxMicros)
+		{
+			m_maxMicros = micros;
+		}
+	}
+
+	/**
+	 * Gets the duration that the given fraction of the recorded durations are
+	 * at or below, to the width of one bucket
+	 *
+	 * @param fraction A number from 0.0 to 1.0, such as 0.99 for the 99th
+	 * percentile
+	 * @return The upper edge of the bucket holding the percentile in
+	 * microseconds, or 0 if nothing was recorded
+	 */
+	int getPercentile(double fraction)
+	{
+		if(m_count == 0)
+		{
+			return 0;
+		}
+		int target = (int) Math.ceil(m_count * fraction);
+		if(target < 1)
+		{
+			target = 1;
+		}
+		int seen = 0;
+		for(int i = 0; i < BUCKETS - 1; i++)
+		{
+			seen += m_buckets[i];
+			if(seen >= target)
+			{
+				return Math.min((i + 1) * BUCKETWIDTH, m_maxMicros);
+			}
+		}
+		return m_maxMicros;
+	}
+
+	/**
+	 * @return The number of durations recorded
+	 */
+	int getCount()
+	{
+		return m_count;
+	}
+
+	/**
+	 * @return The number of durations that were longer than the budget
+	 */
+	int getOverruns()
+	{
+		return m_overruns;
+	}
+
+	/**
+	 * @return The longest duration recorded in microseconds
+	 */
+	int getMax()
+	{
+		return m_maxMicros;
+	}
+
+	/**
+	 * Clears all of the recorded durations
+	 */
+	void reset()
+	{
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			m_buckets[i] = 0;
+		}
+		m_count = 0;
+		m_overruns = 0;
+		m_maxMicros = 0;
+	}
+}
@@ -0,0 +1,133 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Keeps the text of each user line of the driver station LCD in buffers that
+ * are allocated up front, and only sends the lines that have changed at a
+ * limited rate, so writing to the LCD every loop creates no garbage
+ */
+public class LcdWriter
+{
+	static final int LINES = 6;
+	static final int LINELENGTH = 21;
+
+	DriverDisplay display;
+	Clock clock;
+
+	double m_flushPeriod;
+	double m_lastFlushTime;
+	char[][] m_pending = new char[LINES][LINELENGTH];
+	char[][] m_sent = new char[LINES][LINELENGTH];
+	boolean[] m_dirty = new boolean[LINES];
+	StringBuffer m_text = new StringBuffer(LINELENGTH);
+	// Holds the digits of a number while they are worked out backwards
+	char[] m_digits = new char[11];
+
+	/**
+	 * @param display The driver station LCD to send lines to
+	 * @param clock The clock used to limit how often the LCD is sent
+	 * @param flushPeriod The shortest time in seconds between sending the
+	 * LCD
+	 */
+	LcdWriter(DriverDisplay display, Clock clock, double flushPeriod)
+	{
+		this.display = display;
+		this.clock = clock;
+		m_flushPeriod = flushPeriod;
+		m_lastFlushTime = -flushPeriod;
+		for(int i = 0; i < LINES; i++)
+		{
+			for(int j = 0; j < LINELENGTH; j++)
+			{
+				m_pending[i][j] = ' ';
+				// Forces every line to be sent the first time
+				m_sent[i][j] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Sets a line to a number, without creating a String for it
+	 *
+	 * @param line The number of the user line, from 1 to 6
+	 * @param value The number to show at the start of the line
+	 */
+	void print(int line, int value)
+	{
+		char[] pending = m_pending[line - 1];
+		int column = 0;
+		if(value < 0)
+		{
+			pending[column++] = '-';
+		}
+		// Works with negative numbers so that the most negative int is handled
+		int remaining = value < 0 ? value : -value;
+		int digits = 0;
+		do
+		{
+			m_digits[digits++] = (char) ('0' - remaining % 10);
+			remaining /= 10;
+		}
+		while(remaining != 0);
+		while(digits > 0 && column < LINELENGTH)
+		{
+			pending[column++] = m_digits[--digits];
+		}
+		while(column < LINELENGTH)
+		{
+			pending[column++] = ' ';
+		}
+		updateDirty(line - 1);
+	}
+
+	/**
+	 * Marks a line as needing to be sent if it differs from what was last sent
+	 *
+	 * @param index The index of the line, from 0 to 5
+	 */
+	void updateDirty(int index)
+	{
+		char[] pending = m_pending[index];
+		char[] sent = m_sent[index];
+		m_dirty[index] = false;
+		for(int i = 0; i < LINELENGTH; i++)
+		{
+			if(pending[i] != sent[i])
+			{
+				m_dirty[index] = true;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Sends the lines that have changed to the driver station, if enough time
+	 * has passed since the last time the LCD was sent, must be called every
+	 * loop for the LCD to update
+	 */
+	void flush()
+	{
+		double time = clock.getTime();
+		if(time - m_lastFlushTime < m_flushPeriod)
+		{
+			return;
+		}
+		boolean changed = false;
+		for(int i = 0; i < LINES; i++)
+		{
+			if(m_dirty[i])
+			{
+				m_text.setLength(0);
+				m_text.append(m_pending[i]);
+				display.println(i + 1, 1, m_text);
+				System.arraycopy(m_pending[i], 0, m_sent[i], 0, LINELENGTH);
+				m_dirty[i] = false;
+				changed = true;
+			}
+		}
+		if(changed)
+		{
+			display.updateLCD();
+			m_lastFlushTime = time;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Times each section of the robot loop into its own LatencyHistogram and
+ * prints the percentiles and overruns on demand
+ */
+public class LoopTimer
+{
+	// The time the robot has for each loop
+	static final double LOOPBUDGET = 0.02;
+
+	Clock clock;
+	LatencyHistogram[] histograms;
+	double[] m_startTimes;
+	double[] m_durations;
+
+	/**
+	 * Holds the values for each section of the loop that is timed
+	 */
+	public static class Section
+	{
+		public static final int teleopPeriodic = 0,
+				autonomousPeriodic = 1,
+				disabledPeriodic = 2,
+				catapultIdle = 3,
+				chassisIdle = 4,
+				collectorIdle = 5,
+				lcdUpdate = 6,
+				joystickRead = 7,
+				sensorRead = 8,
+				outputWrite = 9;
+
+		static final int count = 10;
+
+		static final String[] names =
+		{
+			"teleopPeriodic", "autonomousPeriodic", "disabledPeriodic",
+			"catapult.idle", "chassis.idle", "collector.idle", "LCD update",
+			"joystick read", "sensor read", "output write"
+		};
+	}
+
+	/**
+	 * @param clock The clock the sections are timed with, this needs to be
+	 * the system's clock and not a time held for the whole loop
+	 */
+	LoopTimer(Clock clock)
+	{
+		this.clock = clock;
+		histograms = new LatencyHistogram[Section.count];
+		m_startTimes = new double[Section.count];
+		m_durations = new double[Section.count];
+		for(int i = 0; i < Section.count; i++)
+		{
+			histograms[i] = new LatencyHistogram(LOOPBUDGET);
+		}
+	}
+
+	/**
+	 * Marks the start of a section
+	 *
+	 * @param section The section from LoopTimer.Section that is starting
+	 */
+	void begin(int section)
+	{
+		m_startTimes[section] = clock.getTime();
+	}
+
+	/**
+	 * Marks the end of a section and records how long it took
+	 *
+	 * @param section The section from LoopTimer.Section that has ended
+	 */
+	void end(int section)
+	{
+		m_durations[section] = clock.getTime() - m_startTimes[section];
+		histograms[section].record(m_durations[section]);
+	}
+
+	/**
+	 * @param section The section from LoopTimer.Section
+	 * @return How long the section took the last time it ended, in seconds
+	 */
+	double getLastDuration(int section)
+	{
+		return m_durations[section];
+	}
+
+	/**
+	 * @param section The section from LoopTimer.Section
+	 * @return The histogram of the section's durations
+	 */
+	LatencyHistogram getHistogram(int section)
+	{
+		return histograms[section];
+	}
+
+	/**
+	 * Prints the 50th and 99th percentile, maximum and number of overruns of
+	 * every section that has been timed, in microseconds
+	 */
+	void printReport()
+	{
+		for(int i = 0; i < Section.count; i++)
+		{
+			LatencyHistogram histogram = histograms[i];
+			if(histogram.getCount() > 0)
+			{
+				System.out.println(Section.names[i] + ": p50 "
+						+ histogram.getPercentile(0.5) + "us p99 "
+						+ histogram.getPercentile(0.99) + "us max "
+						+ histogram.getMax() + "us overruns "
+						+ histogram.getOverruns() + "/"
+						+ histogram.getCount());
+			}
+		}
+	}
+
+	/**
+	 * Clears the histograms of every section
+	 */
+	void reset()
+	{
+		for(int i = 0; i < Section.count; i++)
+		{
+			histograms[i].reset();
+		}
+	}
+}
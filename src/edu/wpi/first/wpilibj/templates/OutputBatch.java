@@ -0,0 +1,173 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Holds every motor controller on the robot as a BufferedOutput and sends
+ * their powers together at the end of each loop. A power that hasn't changed
+ * isn't sent again until REFRESHPERIOD has passed, so holding a motor at the
+ * same power every loop costs nothing, while each Talon is still sent its
+ * power now and then in case a packet was lost.
+ *
+ * A watchdog thread stops every motor if the batch isn't flushed for
+ * EXPIRATION, so a loop that hangs doesn't leave the robot driving at its
+ * last powers. It stands in for the Talons' own motor safety, which would
+ * stop a motor whose unchanged power isn't sent for a whole REFRESHPERIOD.
+ */
+public class OutputBatch implements Runnable
+{
+	// Longest time in seconds an unchanged power goes without being sent
+	static final double REFRESHPERIOD = 0.1;
+	// Longest time in seconds without a flush before every motor is stopped
+	static final double EXPIRATION = 0.1;
+	// Time in milliseconds between checks of the time since the last flush
+	static final int WATCHDOGPERIOD = 20;
+
+	Hardware hardware;
+	Clock clock;
+	Thread thread;
+	BufferedOutput[] m_outputs;
+	int m_count;
+	int m_writes;
+	int m_skipped;
+	volatile boolean m_running;
+	// These are only used while holding the lock on this object, so a flush
+	// and the watchdog never act on each other's half finished work
+	double m_flushTime;
+	boolean m_expired;
+	volatile int m_expirations;
+
+	/**
+	 * @param hardware The hardware the Talons are created from
+	 * @param capacity The most motor controllers that will be created
+	 */
+	OutputBatch(Hardware hardware, int capacity)
+	{
+		this.hardware = hardware;
+		clock = hardware.clock();
+		m_outputs = new BufferedOutput[capacity];
+	}
+
+	/**
+	 * Creates a motor controller whose power is sent when the batch is
+	 * flushed
+	 *
+	 * @param port The PWM port of the Talon
+	 * @return The buffered motor controller
+	 */
+	BufferedOutput motor(int port)
+	{
+		BufferedOutput output = new BufferedOutput(hardware.motor(port),
+				clock);
+		m_outputs[m_count++] = output;
+		return output;
+	}
+
+	/**
+	 * Sends the powers that have changed or are due to be refreshed, called
+	 * at the end of every loop
+	 */
+	synchronized void flush()
+	{
+		double time = clock.getTime();
+		m_flushTime = time;
+		m_expired = false;
+		for(int i = 0; i < m_count; i++)
+		{
+			if(m_outputs[i].write(time, REFRESHPERIOD))
+			{
+				m_writes++;
+			}
+			else
+			{
+				m_skipped++;
+			}
+		}
+	}
+
+	/**
+	 * Starts the watchdog thread
+	 *
+	 * @param priority The thread priority, above the robot loop's so it runs
+	 * even if the loop doesn't give up the processor
+	 */
+	void start(int priority)
+	{
+		synchronized(this)
+		{
+			m_flushTime = clock.getTime();
+		}
+		m_running = true;
+		thread = new Thread(this);
+		thread.setPriority(priority);
+		thread.start();
+	}
+
+	/**
+	 * Stops the watchdog thread the next time it wakes
+	 */
+	void stop()
+	{
+		m_running = false;
+	}
+
+	/**
+	 * Stops every motor at once if the batch hasn't been flushed for
+	 * EXPIRATION, the next flush sends their powers again
+	 */
+	synchronized void poll()
+	{
+		if(m_expired || clock.getTime() - m_flushTime <= EXPIRATION)
+		{
+			return;
+		}
+		m_expired = true;
+		m_expirations++;
+		for(int i = 0; i < m_count; i++)
+		{
+			m_outputs[i].stop();
+		}
+	}
+
+	public void run()
+	{
+		while(m_running)
+		{
+			poll();
+			try
+			{
+				Thread.sleep(WATCHDOGPERIOD);
+			}
+			catch(InterruptedException e)
+			{
+			}
+		}
+	}
+
+	/**
+	 * Prints how many powers were sent and skipped since the last reset, and
+	 * how many times the watchdog stopped the motors
+	 */
+	void printReport()
+	{
+		if(m_expirations > 0)
+		{
+			System.out.println("Motor watchdog expired " + m_expirations
+					+ " times");
+		}
+		if(m_writes + m_skipped == 0)
+		{
+			return;
+		}
+		System.out.println("Motor writes: " + m_writes + " sent, " + m_skipped
+				+ " skipped");
+	}
+
+	/**
+	 * Clears the counts of sent and skipped powers
+	 */
+	void reset()
+	{
+		m_writes = 0;
+		m_skipped = 0;
+		m_expirations = 0;
+	}
+}
@@ -0,0 +1,737 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Holds all of the robot's subsystems and the code for each mode of the
+ * match, the Robot class calls into this so that the same code can be run on
+ * a desktop computer with simulated hardware
+ */
+public class RobotController implements StateMachine.Behavior
+{
+	Hardware hardware;
+	DriverInput joystick;
+	JoystickSnapshot joystickSnapshot;
+	ButtonCommands driverCommands;
+	SensorSnapshot sensors;
+	Chassis chassis;
+	Catapult catapult;
+	Collector collector;
+	GyroDrive gyroDrive;
+	HeadingHold headingHold;
+	FilteredAnalog ultrasonicSensor, gyroSensor;
+	GyroHeading gyroHeading;
+	CycleClock clock;
+	LcdWriter driverStationLCD;
+	LoopTimer loopTimer;
+	Settings settings;
+	TelemetryBuffer telemetry;
+	TelemetryWriter telemetryWriter;
+	Scheduler teleopScheduler;
+	OutputBatch outputs;
+	AnalogSampler sensorSampler;
+	StateMachine unfolding, autonomous;
+	Runnable driverInputTask;
+	int m_telemetrySlot = -1;
+
+	// Talon Ports
+	static final int LEFTFRONTTALONPORT = 6;
+	static final int LEFTREARTALONPORT = 8;
+	static final int RIGHTFRONTTALONPORT = 7;
+	static final int RIGHTREARTALONPORT = 3;
+	static final int CATAPULTTALONONEPORT = 4;
+	static final int CATAPULTTALONTWOPORT = 5;
+	static final int LIFTINGTALONPORT = 1;
+	static final int ROLLERTALONPORT = 2;
+	// Digital Inputs
+	static final int CATAPULTENCODERPORTA = 5;
+	static final int CATAPULTENCODERPORTB = 6;
+	static final int LOWERLIMITSENSORPORT = 3;
+	// Analog Inputs
+	static final int BALLSENSORPORT = 7;
+	static final int ULTRASONICSENSORPORT = 1;
+	static final int GYROSENSORPORT = 6;
+	// Driver Station Inputs
+	static final int JOYSTICKPORT = 1;
+	static final int GYROASSISTINPUT = 2;
+	static final int FIELDORIENTEDINPUT = 3;
+	// Time in seconds between updates of the driver station LCD
+	static final double LCDPERIOD = 0.2;
+	// Time in seconds between runs of the teleop tasks, the catapult runs
+	// fastest so it stops as close to the stopping point as it can
+	static final double CATAPULTPERIOD = 0.005;
+	static final double DRIVEPERIOD = 0.02;
+	static final double COLLECTORPERIOD = 0.02;
+	// The file the summaries of the last shots are written to when disabled
+	static final String SHOTFILE = "shots.csv";
+	// Number of samples each analog input is filtered over, the gyro is
+	// averaged and the distance sensors take the median to reject spikes
+	static final int GYROWINDOW = 8;
+	static final int ULTRASONICWINDOW = 5;
+	static final int BALLSENSORWINDOW = 5;
+	// Number of loops the telemetry buffer holds before samples are dropped
+	static final int TELEMETRYCAPACITY = 512;
+
+	boolean m_buzzerShot;
+	boolean m_autoFired;
+	boolean m_unfoldingDone;
+	boolean m_collectorStarted;
+	int m_correctRangeLoops;
+	int m_pidError;
+	int m_cummulativePIDError;
+	double m_rotationPConstant;
+	double m_rotationIConstant;
+	double m_spinThreshold;
+	double m_headingHoldPConstant;
+	double m_headingHoldDConstant;
+	int m_gyroCenter;
+	int m_gyroValue;
+	// The times the collector is folded away and the autonomous shot fires
+	double m_unfoldedDeadline;
+	double m_autoFireDeadline;
+	double[] m_edgeTimes = new double[2];
+
+	// Holds the state values for the unfolding state machine
+	public static class UnfoldingState
+	{
+		public static final int collectorLower = 0,
+				catapultLower = 1,
+				waitingForCatapult = 2,
+				done = 3;
+
+		static final String[] names =
+		{
+			"collectorLower", "catapultLower", "waitingForCatapult", "done"
+		};
+	}
+
+	// Holds the state values for the autonomous state machine
+	public static class AutonomousState
+	{
+		public static final int waiting = 0,
+				running = 1,
+				stopped = 2;
+
+		static final String[] names = {"waiting", "running", "stopped"};
+	}
+
+	// Holds the guards of the unfolding and autonomous state machines
+	public static class AutonomousGuard
+	{
+		public static final int catapultLowering = 0,
+				inRange = 1;
+
+		static final String[] names = {"catapultLowering", "inRange"};
+	}
+
+	// Holds the values for the mode the robot is in, as recorded in telemetry
+	public static class Mode
+	{
+		public static final int disabled = 0,
+				autonomous = 1,
+				teleop = 2,
+				test = 3;
+	}
+
+	/**
+	 * @param hardware The hardware all of the subsystems are created from
+	 */
+	RobotController(Hardware hardware)
+	{
+		this.hardware = hardware;
+		settings = new Settings(hardware, "settings.txt");
+		clock = new CycleClock(hardware.clock());
+		joystick = hardware.driverInput(JOYSTICKPORT);
+		// Only the axes and digital inputs that the driver's commands and the
+		// telemetry use are read
+		joystickSnapshot = new JoystickSnapshot(new int[] {1, 2, 3, 5, 6},
+				new int[] {GYROASSISTINPUT, FIELDORIENTEDINPUT});
+		sensors = new SensorSnapshot();
+		outputs = new OutputBatch(hardware, 8);
+		chassis = new Chassis(outputs, LEFTFRONTTALONPORT, LEFTREARTALONPORT,
+				RIGHTFRONTTALONPORT, RIGHTREARTALONPORT);
+		catapult = new Catapult(hardware, clock, outputs, CATAPULTTALONONEPORT,
+				CATAPULTTALONTWOPORT, CATAPULTENCODERPORTA,
+				CATAPULTENCODERPORTB);
+		sensorSampler = new AnalogSampler(4);
+		collector = new Collector(hardware, clock, sensorSampler, outputs,
+				LIFTINGTALONPORT, ROLLERTALONPORT, BALLSENSORPORT,
+				BALLSENSORWINDOW, LOWERLIMITSENSORPORT);
+		ultrasonicSensor = sensorSampler.add(
+				hardware.analogInput(ULTRASONICSENSORPORT),
+				FilteredAnalog.Filter.median, ULTRASONICWINDOW);
+		// The heading integrates the raw gyro, the average is only used for
+		// the gyro assist and the LCD
+		AnalogSensor gyroInput = hardware.analogInput(GYROSENSORPORT);
+		gyroSensor = sensorSampler.add(gyroInput,
+				FilteredAnalog.Filter.average, GYROWINDOW);
+		gyroHeading = new GyroHeading(gyroInput, hardware.clock());
+		sensorSampler.add(gyroHeading);
+		// The LCD task's period sets how often the LCD is sent, so the writer
+		// doesn't limit it again
+		driverStationLCD = new LcdWriter(hardware.driverDisplay(),
+				hardware.clock(), 0);
+		gyroDrive = new GyroDrive(clock);
+		headingHold = new HeadingHold();
+		loopTimer = new LoopTimer(hardware.clock());
+		telemetry = new TelemetryBuffer(TELEMETRYCAPACITY);
+		telemetryWriter = new TelemetryWriter(hardware, telemetry);
+		teleopScheduler = new Scheduler(hardware.clock(), 5);
+		// The driver's commands are read first so the other tasks act on
+		// them in the same tick
+		driverInputTask = new Runnable()
+		{
+			public void run()
+			{
+				readDriverInput();
+			}
+		};
+		teleopScheduler.addTask("driver input", driverInputTask, DRIVEPERIOD,
+				0);
+		teleopScheduler.addTask("catapult", new Runnable()
+		{
+			public void run()
+			{
+				loopTimer.begin(LoopTimer.Section.catapultIdle);
+				catapult.idle(sensors);
+				loopTimer.end(LoopTimer.Section.catapultIdle);
+			}
+		}, CATAPULTPERIOD, 1);
+		teleopScheduler.addTask("chassis", new Runnable()
+		{
+			public void run()
+			{
+				loopTimer.begin(LoopTimer.Section.chassisIdle);
+				chassis.idle();
+				loopTimer.end(LoopTimer.Section.chassisIdle);
+			}
+		}, DRIVEPERIOD, 2);
+		teleopScheduler.addTask("collector", new Runnable()
+		{
+			public void run()
+			{
+				loopTimer.begin(LoopTimer.Section.collectorIdle);
+				collector.idle(sensors);
+				loopTimer.end(LoopTimer.Section.collectorIdle);
+			}
+		}, COLLECTORPERIOD, 3);
+		teleopScheduler.addTask("LCD", new Runnable()
+		{
+			public void run()
+			{
+				loopTimer.begin(LoopTimer.Section.lcdUpdate);
+				driverStationLCD.print(1, m_gyroValue);
+				driverStationLCD.print(2, (int) sensors.m_heading);
+				driverStationLCD.flush();
+				loopTimer.end(LoopTimer.Section.lcdUpdate);
+			}
+		}, LCDPERIOD, 4);
+		// Unfolds the robot by lowering the collector and then the catapult,
+		// while it waits a second and then drives up to the goal
+		unfolding = new StateMachine("Unfolding", UnfoldingState.names,
+				AutonomousGuard.names, 2, clock, this,
+				UnfoldingState.collectorLower);
+		unfolding.setTimeout(UnfoldingState.collectorLower, 1.5,
+				UnfoldingState.catapultLower);
+		unfolding.addTransition(UnfoldingState.catapultLower,
+				StateMachine.ALWAYS, UnfoldingState.waitingForCatapult);
+		unfolding.addTransition(UnfoldingState.waitingForCatapult,
+				AutonomousGuard.catapultLowering, UnfoldingState.done);
+		autonomous = new StateMachine("Autonomous", AutonomousState.names,
+				AutonomousGuard.names, 1, clock, this, AutonomousState.waiting);
+		autonomous.setTimeout(AutonomousState.waiting, 1,
+				AutonomousState.running);
+		autonomous.addTransition(AutonomousState.running,
+				AutonomousGuard.inRange, AutonomousState.stopped);
+		bindDriverCommands();
+		applySettings();
+	}
+
+	/**
+	 * Binds the joystick's buttons to the commands they run when pressed
+	 */
+	void bindDriverCommands()
+	{
+		driverCommands = new ButtonCommands(8);
+		driverCommands.bind(1, ButtonCommands.Edge.pressed, new Runnable()
+		{
+			public void run()
+			{
+				catapult.fire();
+			}
+		});
+		driverCommands.bind(2, ButtonCommands.Edge.pressed, new Runnable()
+		{
+			public void run()
+			{
+				collector.run();
+			}
+		});
+		driverCommands.bind(3, ButtonCommands.Edge.pressed, new Runnable()
+		{
+			public void run()
+			{
+				collector.disable();
+			}
+		});
+		driverCommands.bind(4, ButtonCommands.Edge.pressed, new Runnable()
+		{
+			public void run()
+			{
+				catapult.resetEncoder();
+			}
+		});
+		bindStoppingPoint(5, Settings.Key.button5StoppingPoint);
+		bindStoppingPoint(6, Settings.Key.button6StoppingPoint);
+		bindStoppingPoint(9, Settings.Key.button9StoppingPoint);
+		bindStoppingPoint(10, Settings.Key.button10StoppingPoint);
+	}
+
+	/**
+	 * Binds a button to setting the catapult's stopping point
+	 *
+	 * @param button The number of the button
+	 * @param key The setting from Settings.Key holding the stopping point, read
+	 * when the button is pressed so reloaded settings take effect
+	 */
+	void bindStoppingPoint(int button, final int key)
+	{
+		driverCommands.bind(button, ButtonCommands.Edge.pressed,
+				new Runnable()
+				{
+					public void run()
+					{
+						catapult.setStoppingPoint(settings.getInt(key));
+					}
+				});
+	}
+
+	/**
+	 * Copies the settings into the subsystems and the gyro constants
+	 */
+	void applySettings()
+	{
+		m_rotationPConstant
+				= settings.getDouble(Settings.Key.rotationPConstant);
+		m_rotationIConstant
+				= settings.getDouble(Settings.Key.rotationIConstant);
+		m_spinThreshold = settings.getDouble(Settings.Key.spinThreshold);
+		m_headingHoldPConstant
+				= settings.getDouble(Settings.Key.headingHoldPConstant);
+		m_headingHoldDConstant
+				= settings.getDouble(Settings.Key.headingHoldDConstant);
+		m_gyroCenter = settings.getInt(Settings.Key.gyroCenter);
+		gyroHeading.setConstants(m_gyroCenter,
+				settings.getDouble(Settings.Key.gyroCountsPerDegree),
+				settings.getDouble(Settings.Key.gyroBiasTimeConstant));
+		catapult.applySettings(settings);
+		collector.applySettings(settings);
+	}
+
+	public void robotInit()
+	{
+		// The settings file is only read here so no mode change waits on it
+		settings.load();
+		settings.print();
+		applySettings();
+		catapult.setMotorPower(1.0);
+	}
+
+	/**
+	 * Takes the snapshots of the driver station and the sensors that the whole
+	 * loop computes from, called at the start of every loop
+	 *
+	 * @param readJoystick False to keep the last snapshot of the driver
+	 * station, such as in teleop ticks that don't use it
+	 */
+	void sense(boolean readJoystick)
+	{
+		clock.tick();
+		if(readJoystick)
+		{
+			loopTimer.begin(LoopTimer.Section.joystickRead);
+			joystickSnapshot.read(joystick);
+			loopTimer.end(LoopTimer.Section.joystickRead);
+		}
+		loopTimer.begin(LoopTimer.Section.sensorRead);
+		sensors.read(clock, catapult, collector, ultrasonicSensor,
+				gyroSensor, gyroHeading);
+		loopTimer.end(LoopTimer.Section.sensorRead);
+	}
+
+	/**
+	 * Sends the motor powers set during the loop together, called at the end
+	 * of every loop
+	 */
+	void actuate()
+	{
+		loopTimer.begin(LoopTimer.Section.outputWrite);
+		outputs.flush();
+		loopTimer.end(LoopTimer.Section.outputWrite);
+	}
+
+	/**
+	 * Records the inputs at the start of a loop into the telemetry buffer, so
+	 * the log holds the values the loop ran with and can be replayed
+	 */
+	void beginTelemetry()
+	{
+		m_telemetrySlot = telemetry.claim();
+		int slot = m_telemetrySlot;
+		if(slot < 0)
+		{
+			return;
+		}
+		JoystickSnapshot input = joystickSnapshot;
+		SensorSnapshot sensors = this.sensors;
+		telemetry.setInt(slot, TelemetryBuffer.IntField.dropped,
+				telemetry.getDropped());
+		telemetry.setInt(slot, TelemetryBuffer.IntField.encoder,
+				sensors.m_encoderCount);
+		telemetry.setInt(slot, TelemetryBuffer.IntField.gyro,
+				sensors.m_gyro);
+		telemetry.setInt(slot, TelemetryBuffer.IntField.ultrasonic,
+				sensors.m_ultrasonic);
+		telemetry.setInt(slot, TelemetryBuffer.IntField.ballSensor,
+				sensors.m_ballSensor);
+		telemetry.setInt(slot, TelemetryBuffer.IntField.lowerLimit,
+				sensors.m_lowerLimit ? 1 : 0);
+		telemetry.setInt(slot, TelemetryBuffer.IntField.buttons,
+				input.getButtons());
+		telemetry.setInt(slot, TelemetryBuffer.IntField.digitalInputs,
+				input.getDigitalInputs());
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.time,
+				sensors.m_time);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.xAxis,
+				input.getAxis(1));
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.yAxis,
+				input.getAxis(2));
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.twistAxis,
+				input.getAxis(3));
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.rollerAxis,
+				input.getAxis(5));
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.raiseAxis,
+				input.getAxis(6));
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.encoderRate,
+				sensors.m_encoderRate);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.heading,
+				sensors.m_heading);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.gyroBias,
+				sensors.m_gyroBias);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.gyroRate,
+				sensors.m_gyroRate);
+	}
+
+	/**
+	 * Records the states and motor outputs at the end of a loop and hands the
+	 * sample to the telemetry writer, the sample is dropped if the writer has
+	 * fallen behind
+	 *
+	 * @param mode The mode from RobotController.Mode that the loop ran in
+	 * @param loopTime How long the loop took in seconds
+	 */
+	void endTelemetry(int mode, double loopTime)
+	{
+		int slot = m_telemetrySlot;
+		if(slot < 0)
+		{
+			return;
+		}
+		telemetry.setInt(slot, TelemetryBuffer.IntField.mode, mode);
+		telemetry.setInt(slot, TelemetryBuffer.IntField.catapultState,
+				catapult.getState());
+		// The edges the watchers acted on are logged with the substate they
+		// led to, so a replay can apply them at the same times
+		synchronized(collector)
+		{
+			telemetry.setInt(slot, TelemetryBuffer.IntField.collectorMode,
+					collector.getMode());
+			telemetry.setInt(slot, TelemetryBuffer.IntField.collectorSubstate,
+					collector.getSubstate());
+			telemetry.setInt(slot, TelemetryBuffer.IntField.collectorEdges,
+					collector.takeEdges(m_edgeTimes));
+		}
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.limitEdgeTime,
+				m_edgeTimes[Collector.CollectorGuard.lowerLimitReached]);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.ballEdgeTime,
+				m_edgeTimes[Collector.CollectorGuard.ballSeen]);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.loopTime,
+				loopTime);
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.leftFrontMotor,
+				chassis.leftFrontTalon.get());
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.leftRearMotor,
+				chassis.leftRearTalon.get());
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.rightFrontMotor,
+				chassis.rightFrontTalon.get());
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.rightRearMotor,
+				chassis.rightRearTalon.get());
+		telemetry.setDouble(slot,
+				TelemetryBuffer.DoubleField.catapultOneMotor,
+				catapult.motorOneTalon.get());
+		telemetry.setDouble(slot,
+				TelemetryBuffer.DoubleField.catapultTwoMotor,
+				catapult.motorTwoTalon.get());
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.liftingMotor,
+				collector.liftingTalon.get());
+		telemetry.setDouble(slot, TelemetryBuffer.DoubleField.rollerMotor,
+				collector.rollerTalon.get());
+		telemetry.publish();
+	}
+
+	public void disabledInit()
+	{
+		// The robot doesn't move while disabled, so the gyro's value at rest
+		// is estimated until it is enabled again
+		gyroHeading.setCalibrating(true);
+		clock.tick();
+		catapult.reInit();
+		// Reports the loop timing of the mode that just ended
+		loopTimer.printReport();
+		loopTimer.reset();
+		teleopScheduler.printReport();
+		teleopScheduler.reset();
+		outputs.printReport();
+		outputs.reset();
+		catapult.states.printReport();
+		catapult.states.resetStatistics();
+		collector.modes.printReport();
+		collector.modes.resetStatistics();
+		collector.substates.printReport();
+		collector.substates.resetStatistics();
+		catapult.shotRecorder.printReport();
+		catapult.shotRecorder.export(hardware, SHOTFILE);
+	}
+
+	public void autonomousInit()
+	{
+		// The robot is placed facing downfield, which becomes a heading of 0
+		// for the rest of the match
+		gyroHeading.setCalibrating(false);
+		gyroHeading.reset();
+		clock.tick();
+		m_unfoldedDeadline = clock.deadline(4);
+		m_autoFireDeadline = clock.deadline(7);
+		m_autoFired = false;
+		unfolding.reset(UnfoldingState.collectorLower);
+		autonomous.reset(AutonomousState.waiting);
+		m_unfoldingDone = false;
+		m_collectorStarted = false;
+		m_correctRangeLoops = 0;
+		m_pidError = 0;
+		m_cummulativePIDError = 0;
+		catapult.resetEncoder();
+		catapult.setMotorPower(1.0);
+		collector.setAutomaticRollerPower(
+				settings.getDouble(Settings.Key.autonomousRollerPower));
+		collector.run();
+	}
+
+	public void teleopInit()
+	{
+		System.out.println("Teleop Enabled!");
+		gyroHeading.setCalibrating(false);
+		// A button already held when teleop starts doesn't count as pressed
+		joystickSnapshot.clearEdges();
+		gyroDrive.reinit();
+		headingHold.release();
+		clock.tick();
+		collector.setAutomaticRollerPower(
+				settings.getDouble(Settings.Key.teleopRollerPower));
+		catapult.setMotorPower(1.0);
+		teleopScheduler.restart();
+	}
+
+	public void disabledPeriodic()
+	{
+		loopTimer.begin(LoopTimer.Section.disabledPeriodic);
+		sense(true);
+		beginTelemetry();
+		catapult.setStoppingPoint(
+				settings.getInt(Settings.Key.disabledStoppingPoint));
+		collector.disable();
+		// Picks up changes to the settings file made between matches
+		if(settings.reloadIfChanged())
+		{
+			applySettings();
+		}
+		actuate();
+		loopTimer.end(LoopTimer.Section.disabledPeriodic);
+		endTelemetry(Mode.disabled, loopTimer.getLastDuration(
+				LoopTimer.Section.disabledPeriodic));
+	}
+
+	public void autonomousPeriodic()
+	{
+		loopTimer.begin(LoopTimer.Section.autonomousPeriodic);
+		sense(true);
+		beginTelemetry();
+		// Completely untested in Java, use at your own risk
+		/* unfolding.update();
+		 autonomous.update();
+		 chassis.idle();
+		 catapult.idle(sensors);
+		 collector.idle(sensors); */
+		actuate();
+		loopTimer.end(LoopTimer.Section.autonomousPeriodic);
+		endTelemetry(Mode.autonomous, loopTimer.getLastDuration(
+				LoopTimer.Section.autonomousPeriodic));
+	}
+
+	public boolean check(StateMachine machine, int guard)
+	{
+		switch(guard)
+		{
+			case AutonomousGuard.catapultLowering:
+				return catapult.getState()
+						== Catapult.CatapultState.autonomousLowering;
+
+			default:
+				return sensors.m_ultrasonic <= 95;
+		}
+	}
+
+	public void enter(StateMachine machine, int state, double time)
+	{
+	}
+
+	public void run(StateMachine machine, int state)
+	{
+		if(machine == unfolding)
+		{
+			switch(state)
+			{
+				case UnfoldingState.catapultLower:
+					catapult.autonomousLower();
+					break;
+
+				case UnfoldingState.done:
+					if(clock.isPast(m_unfoldedDeadline))
+					{
+						collector.disable();
+						m_unfoldingDone = true;
+					}
+					break;
+			}
+			return;
+		}
+		switch(state)
+		{
+			case AutonomousState.running:
+				if(clock.isPast(m_autoFireDeadline) && !m_autoFired
+						&& m_unfoldingDone)
+				{
+					chassis.setJoystickData(0, 0, 0);
+					catapult.resetEncoder();
+					catapult.setMotorPower(1.0);
+					catapult.setStoppingPoint(151);
+					catapult.fire();
+					m_autoFired = true;
+				}
+				else if(sensors.m_ultrasonic > 95)
+				{
+					m_pidError = sensors.m_ultrasonic - 95;
+					m_cummulativePIDError += m_pidError;
+					double y = -(m_pidError * 0.006
+							+ m_cummulativePIDError * 0.00005);
+					chassis.setJoystickData(0, y, 0);
+				}
+				break;
+
+			default:
+				chassis.setJoystickData(0, 0, 0);
+				break;
+		}
+	}
+
+	/**
+	 * Runs the teleop tasks that are due, it does nothing if none are so it
+	 * can be called both by IterativeRobot and by a faster thread
+	 */
+	public void teleopPeriodic()
+	{
+		if(!teleopScheduler.isDue())
+		{
+			return;
+		}
+		loopTimer.begin(LoopTimer.Section.teleopPeriodic);
+		// The driver station only sends a new packet every 20 ms, so the
+		// joystick is only read for the ticks that drive from it
+		sense(teleopScheduler.isDue(driverInputTask));
+		beginTelemetry();
+		teleopScheduler.tick();
+		// Every task's outputs are sent together once the tick is done
+		actuate();
+		loopTimer.end(LoopTimer.Section.teleopPeriodic);
+		endTelemetry(Mode.teleop, loopTimer.getLastDuration(
+				LoopTimer.Section.teleopPeriodic));
+	}
+
+	/**
+	 * Passes the driver's commands from the loop's snapshot of the joystick to
+	 * the subsystems
+	 */
+	void readDriverInput()
+	{
+		JoystickSnapshot input = joystickSnapshot;
+		// Rounded so the gyro assist constants keep working in whole counts
+		int gyroValue = (int) Math.floor(sensors.m_gyro - sensors.m_gyroBias
+				+ 0.5);
+		// Kept for the LCD task
+		m_gyroValue = gyroValue;
+		double x = input.getAxis(1);
+		double y = input.getAxis(2);
+		double twist = input.getAxis(3);
+		boolean fieldOriented = input.getDigitalIn(FIELDORIENTEDINPUT);
+		double heading = sensors.m_heading;
+		chassis.setFieldOriented(fieldOriented, heading);
+		// A new heading is taken every time the driver stops twisting
+		if(!fieldOriented || twist < -0.15 || twist > 0.15)
+		{
+			headingHold.release();
+		}
+		if(fieldOriented)
+		{
+			// Holds the heading instead of damping the rate, so the robot
+			// still faces the same way after strafing across the field
+			chassis.setJoystickData(x, y, twist);
+			if(twist >= -0.15 && twist <= 0.15)
+			{
+				chassis.setRotation(headingHold.getRotation(heading,
+						sensors.m_gyroRate, m_headingHoldPConstant,
+						m_headingHoldDConstant));
+			}
+		}
+		else if(input.getDigitalIn(GYROASSISTINPUT))
+		{
+			if(twist >= -0.15 && twist <= 0.15)
+			{
+				double adjustedRotationValue
+						= gyroDrive.getAdjustedRotationValue(x, y, 0,
+								m_rotationPConstant, m_rotationIConstant,
+								m_spinThreshold, gyroValue);
+				chassis.setJoystickData(x, y, adjustedRotationValue);
+			}
+			else
+			{
+				chassis.setJoystickData(x, y, twist);
+			}
+		}
+		else
+		{
+			chassis.setJoystickData(x, y, twist);
+		}
+		// The buttons only act on the loop they are pressed in
+		driverCommands.dispatch(input);
+		collector.manualRoller((int) (input.getAxis(5)));
+		collector.manualRaise((int) (input.getAxis(6)));
+	}
+
+	public void testPeriodic()
+	{
+		sense(true);
+		collector.assistedManualRaise();
+		catapult.reInit();
+		chassis.setJoystickData(0, 0, 0);
+		catapult.idle(sensors);
+		chassis.idle();
+		actuate();
+	}
+}
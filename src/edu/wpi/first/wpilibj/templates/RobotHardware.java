@@ -0,0 +1,215 @@
+package edu.wpi.first.wpilibj.templates;
+
+import edu.wpi.first.wpilibj.AnalogChannel;
+import edu.wpi.first.wpilibj.AnalogTrigger;
+import edu.wpi.first.wpilibj.AnalogTriggerOutput;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStationLCD;
+import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.Talon;
+import edu.wpi.first.wpilibj.Timer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Creates the real WPILib actuators and sensors on the cRIO
+ */
+public class RobotHardware implements Hardware
+{
+	static final DriverStationLCD.Line[] LCDLINES =
+	{
+		DriverStationLCD.Line.kUser1, DriverStationLCD.Line.kUser2,
+		DriverStationLCD.Line.kUser3, DriverStationLCD.Line.kUser4,
+		DriverStationLCD.Line.kUser5, DriverStationLCD.Line.kUser6
+	};
+
+	// The cRIO has 8 analog inputs, kept so triggers can share them
+	AnalogChannel[] analogChannels = new AnalogChannel[9];
+
+	Clock fpgaClock = new Clock()
+	{
+		public double getTime()
+		{
+			return Timer.getFPGATimestamp();
+		}
+	};
+
+	public SpeedOutput motor(int port)
+	{
+		final Talon talon = new Talon(port);
+		// The motor safety is left off, an unchanged power is only sent every
+		// OutputBatch.REFRESHPERIOD and the batch's watchdog stops the motors
+		return new SpeedOutput()
+		{
+			public void set(double power)
+			{
+				talon.set(power);
+			}
+
+			public double get()
+			{
+				return talon.get();
+			}
+		};
+	}
+
+	public EncoderSensor encoder(int portA, int portB, boolean reverse)
+	{
+		final Encoder encoder = new Encoder(portA, portB, reverse);
+		encoder.start();
+		return new EncoderSensor()
+		{
+			public int get()
+			{
+				return encoder.get();
+			}
+
+			public double getRate()
+			{
+				return encoder.getRate();
+			}
+
+			public void reset()
+			{
+				encoder.reset();
+			}
+		};
+	}
+
+	public AnalogSensor analogInput(int port)
+	{
+		final AnalogChannel channel = new AnalogChannel(port);
+		analogChannels[port] = channel;
+		return new AnalogSensor()
+		{
+			public int getValue()
+			{
+				return channel.getValue();
+			}
+		};
+	}
+
+	public AnalogTriggerSensor analogTrigger(int port)
+	{
+		final AnalogTrigger trigger = new AnalogTrigger(analogChannels[port]);
+		// The FPGA rejects single sample spikes before comparing
+		trigger.setFiltered(true);
+		final AnalogTriggerOutput output
+				= trigger.createOutput(AnalogTriggerOutput.Type.kState);
+		output.requestInterrupts();
+		output.enableInterrupts();
+		return new AnalogTriggerSensor()
+		{
+			public boolean get()
+			{
+				return output.get();
+			}
+
+			public void waitForEdge(double timeout)
+			{
+				output.waitForInterrupt(timeout);
+			}
+
+			public void setLimits(int lower, int upper)
+			{
+				// The FPGA's state changes above the upper limit, not at it
+				trigger.setLimitsRaw(lower, upper - 1);
+			}
+		};
+	}
+
+	public DigitalSensor digitalInput(int port)
+	{
+		final DigitalInput input = new DigitalInput(port);
+		input.requestInterrupts();
+		input.setUpSourceEdge(true, true);
+		input.enableInterrupts();
+		return new DigitalSensor()
+		{
+			public boolean get()
+			{
+				return input.get();
+			}
+
+			public void waitForEdge(double timeout)
+			{
+				input.waitForInterrupt(timeout);
+			}
+		};
+	}
+
+	public DriverInput driverInput(final int joystickPort)
+	{
+		final Joystick joystick = new Joystick(joystickPort);
+		final DriverStation driverStation = DriverStation.getInstance();
+		return new DriverInput()
+		{
+			public double getRawAxis(int axis)
+			{
+				return joystick.getRawAxis(axis);
+			}
+
+			public boolean getRawButton(int button)
+			{
+				return joystick.getRawButton(button);
+			}
+
+			public int getButtons()
+			{
+				return driverStation.getStickButtons(joystickPort);
+			}
+
+			public boolean getDigitalIn(int channel)
+			{
+				return driverStation.getDigitalIn(channel);
+			}
+		};
+	}
+
+	public DriverDisplay driverDisplay()
+	{
+		final DriverStationLCD lcd = DriverStationLCD.getInstance();
+		return new DriverDisplay()
+		{
+			public void clear()
+			{
+				lcd.clear();
+			}
+
+			public void println(int line, int startingColumn,
+					StringBuffer text)
+			{
+				lcd.println(LCDLINES[line - 1], startingColumn, text);
+			}
+
+			public void updateLCD()
+			{
+				lcd.updateLCD();
+			}
+		};
+	}
+
+	public Clock clock()
+	{
+		return fpgaClock;
+	}
+
+	public InputStream openFile(String filename) throws IOException
+	{
+		return FileReader.openInputStream(filename);
+	}
+
+	public OutputStream createFile(String filename) throws IOException
+	{
+		return FileReader.openOutputStream(filename);
+	}
+
+	public long getFileModified(String filename)
+	{
+		return FileReader.getModifiedTime(filename);
+	}
+}
@@ -0,0 +1,13 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Anything an AnalogSampler updates from its thread every sample period
+ */
+public interface Sampled
+{
+	/**
+	 * Reads the input and updates whatever is kept from it, called only from
+	 * the sampling thread
+	 */
+	void sample();
+}
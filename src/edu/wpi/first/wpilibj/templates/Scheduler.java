@@ -0,0 +1,192 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Runs tasks that each have their own period, so a task that needs to react
+ * quickly can run more often than one that only updates a display. Each call
+ * to tick() runs every task whose release time has come, in order of
+ * priority, and records how late it started. Releases a task could not run in
+ * time for are counted as overruns and skipped rather than run back to back.
+ */
+public class Scheduler
+{
+	// A task released this close to the current time counts as due, so that
+	// rounding in the release times never delays a task by a whole tick
+	static final double SLACK = 0.0001;
+
+	Clock clock;
+	Runnable[] m_tasks;
+	String[] m_names;
+	double[] m_periods;
+	int[] m_priorities;
+	double[] m_nextReleases;
+	int[] m_runs;
+	int[] m_overruns;
+	LatencyHistogram[] m_jitter;
+	int m_count;
+
+	/**
+	 * @param clock The clock the release times are kept on
+	 * @param capacity The most tasks that will be added
+	 */
+	Scheduler(Clock clock, int capacity)
+	{
+		this.clock = clock;
+		m_tasks = new Runnable[capacity];
+		m_names = new String[capacity];
+		m_periods = new double[capacity];
+		m_priorities = new int[capacity];
+		m_nextReleases = new double[capacity];
+		m_runs = new int[capacity];
+		m_overruns = new int[capacity];
+		m_jitter = new LatencyHistogram[capacity];
+	}
+
+	/**
+	 * Adds a task, which is first released at the next call to restart()
+	 *
+	 * @param name The name the task is reported under
+	 * @param task The code to run
+	 * @param period The time in seconds between releases of the task
+	 * @param priority Tasks with a lower number run first when several are
+	 * due in the same tick
+	 */
+	void addTask(String name, Runnable task, double period, int priority)
+	{
+		// Kept sorted by priority so tick() never has to search
+		int index = m_count;
+		while(index > 0 && m_priorities[index - 1] > priority)
+		{
+			m_tasks[index] = m_tasks[index - 1];
+			m_names[index] = m_names[index - 1];
+			m_periods[index] = m_periods[index - 1];
+			m_priorities[index] = m_priorities[index - 1];
+			m_jitter[index] = m_jitter[index - 1];
+			index--;
+		}
+		m_tasks[index] = task;
+		m_names[index] = name;
+		m_periods[index] = period;
+		m_priorities[index] = priority;
+		m_jitter[index] = new LatencyHistogram(period);
+		m_count++;
+		reset();
+	}
+
+	/**
+	 * Releases every task now, such as when the mode they run in starts
+	 */
+	void restart()
+	{
+		double now = clock.getTime();
+		for(int i = 0; i < m_count; i++)
+		{
+			m_nextReleases[i] = now;
+		}
+	}
+
+	/**
+	 * @return True if at least one task is due to run
+	 */
+	boolean isDue()
+	{
+		return clock.getTime() + SLACK >= getNextRelease();
+	}
+
+	/**
+	 * @param task A task that has been added
+	 * @return True if the task is due to run
+	 */
+	boolean isDue(Runnable task)
+	{
+		double now = clock.getTime();
+		for(int i = 0; i < m_count; i++)
+		{
+			if(m_tasks[i] == task)
+			{
+				return now + SLACK >= m_nextReleases[i];
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The earliest time at which a task is due to run
+	 */
+	double getNextRelease()
+	{
+		double next = Double.MAX_VALUE;
+		for(int i = 0; i < m_count; i++)
+		{
+			if(m_nextReleases[i] < next)
+			{
+				next = m_nextReleases[i];
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Runs every task that is due, highest priority first
+	 *
+	 * @return True if any task ran
+	 */
+	boolean tick()
+	{
+		double now = clock.getTime();
+		boolean ran = false;
+		for(int i = 0; i < m_count; i++)
+		{
+			double release = m_nextReleases[i];
+			if(now + SLACK < release)
+			{
+				continue;
+			}
+			m_jitter[i].record(now - release);
+			m_tasks[i].run();
+			m_runs[i]++;
+			ran = true;
+			double period = m_periods[i];
+			double next = release + period;
+			if(next <= now + SLACK)
+			{
+				int missed = (int) ((now + SLACK - next) / period) + 1;
+				m_overruns[i] += missed;
+				next += missed * period;
+			}
+			m_nextReleases[i] = next;
+		}
+		return ran;
+	}
+
+	/**
+	 * Prints how many times each task ran, how late it started in
+	 * microseconds and how many of its releases were missed
+	 */
+	void printReport()
+	{
+		for(int i = 0; i < m_count; i++)
+		{
+			LatencyHistogram jitter = m_jitter[i];
+			if(m_runs[i] > 0)
+			{
+				System.out.println(m_names[i] + ": runs " + m_runs[i]
+						+ " jitter p50 " + jitter.getPercentile(0.5)
+						+ "us p99 " + jitter.getPercentile(0.99) + "us max "
+						+ jitter.getMax() + "us overruns " + m_overruns[i]);
+			}
+		}
+	}
+
+	/**
+	 * Clears the counts and jitter of every task
+	 */
+	void reset()
+	{
+		for(int i = 0; i < m_count; i++)
+		{
+			m_runs[i] = 0;
+			m_overruns[i] = 0;
+			m_jitter[i].reset();
+		}
+	}
+}
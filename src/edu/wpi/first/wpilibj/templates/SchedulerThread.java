@@ -0,0 +1,98 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Runs a loop from its own thread as soon as a Scheduler has a task due,
+ * instead of waiting for the next driver station packet, so tasks can run
+ * faster than IterativeRobot calls its periodic methods
+ */
+public class SchedulerThread implements Runnable
+{
+	// Time in milliseconds the thread sleeps while it is not enabled
+	static final int IDLEPERIOD = 20;
+
+	Scheduler scheduler;
+	Runnable loop;
+	Object lock;
+	Clock clock;
+	Thread thread;
+	volatile boolean m_running;
+	volatile boolean m_enabled;
+
+	/**
+	 * @param scheduler The scheduler whose release times the thread wakes for
+	 * @param loop The code to run when a task is due, which ticks the
+	 * scheduler
+	 * @param lock The object held while the loop runs, which must also be
+	 * held by anything else that runs the robot code
+	 * @param clock The clock the scheduler keeps its release times on
+	 */
+	SchedulerThread(Scheduler scheduler, Runnable loop, Object lock,
+			Clock clock)
+	{
+		this.scheduler = scheduler;
+		this.loop = loop;
+		this.lock = lock;
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts the thread, which does nothing until it is enabled
+	 *
+	 * @param priority The thread priority, such as Thread.MAX_PRIORITY
+	 */
+	void start(int priority)
+	{
+		m_running = true;
+		thread = new Thread(this);
+		thread.setPriority(priority);
+		thread.start();
+	}
+
+	/**
+	 * @param enabled True to run the loop whenever a task is due
+	 */
+	void setEnabled(boolean enabled)
+	{
+		m_enabled = enabled;
+	}
+
+	/**
+	 * Stops the thread after the loop it is running
+	 */
+	void stop()
+	{
+		m_running = false;
+	}
+
+	public void run()
+	{
+		while(m_running)
+		{
+			long sleep = IDLEPERIOD;
+			if(m_enabled)
+			{
+				synchronized(lock)
+				{
+					// Checked again now that the lock is held, the mode may
+					// have changed while this thread waited for it
+					if(m_enabled && scheduler.isDue())
+					{
+						loop.run();
+					}
+					double wait = scheduler.getNextRelease()
+							- clock.getTime();
+					sleep = (long) (wait * 1000);
+				}
+			}
+			try
+			{
+				// The thread scheduler only wakes threads on whole
+				// milliseconds, so a task can start up to one late
+				Thread.sleep(sleep < 1 ? 1 : sleep);
+			}
+			catch(InterruptedException e)
+			{
+			}
+		}
+	}
+}
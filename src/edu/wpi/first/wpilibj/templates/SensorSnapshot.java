@@ -0,0 +1,47 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Holds every sensor value the robot loop uses, read once at the start of
+ * the loop so every task computes from values taken at the same moment. The
+ * subsystems only read the snapshot, which can also be filled in by hand to
+ * run their logic without any hardware.
+ */
+public class SensorSnapshot
+{
+	double m_time;
+	int m_encoderCount;
+	double m_encoderRate;
+	boolean m_lowerLimit;
+	int m_ballSensor;
+	int m_ultrasonic;
+	int m_gyro;
+	double m_heading;
+	double m_gyroRate;
+	double m_gyroBias;
+
+	/**
+	 * Reads the sensors of the robot's subsystems into the snapshot
+	 *
+	 * @param clock The clock the loop's time is read from
+	 * @param catapult The catapult, for its encoder
+	 * @param collector The collector, for its limit switch and ball sensor
+	 * @param ultrasonic The filtered ultrasonic sensor
+	 * @param gyro The filtered gyro
+	 * @param heading The heading integrated from the gyro
+	 */
+	void read(Clock clock, Catapult catapult, Collector collector,
+			FilteredAnalog ultrasonic, FilteredAnalog gyro,
+			GyroHeading heading)
+	{
+		m_time = clock.getTime();
+		m_encoderCount = catapult.catapultEncoder.get();
+		m_encoderRate = catapult.catapultEncoder.getRate();
+		m_lowerLimit = collector.lowerLimitSensor.get();
+		m_ballSensor = collector.ballSensor.getValue();
+		m_ultrasonic = ultrasonic.getValue();
+		m_gyro = gyro.getValue();
+		m_heading = heading.getHeading();
+		m_gyroRate = heading.getRate();
+		m_gyroBias = heading.getBias();
+	}
+}
@@ -0,0 +1,221 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Holds every tunable number on the robot, read from a settings file of
+ * "name=value" lines. The values are kept as primitives looked up by the
+ * constants in Settings.Key. While the robot is disabled the file's
+ * modification time is checked now and then, and the file is read again if
+ * it has changed, so values can be tuned between matches without a redeploy.
+ */
+public class Settings
+{
+	// Shortest time in seconds between checks of the file's modification time
+	static final double CHECKPERIOD = 1.0;
+
+	Hardware hardware;
+	Clock clock;
+	String m_filename;
+	SettingsParser parser;
+
+	double[] m_values;
+	long m_modifiedTime;
+	double m_lastCheckTime;
+	boolean m_loaded;
+
+	/**
+	 * Holds the index of each setting and its name and default value
+	 */
+	public static class Key
+	{
+		public static final int rotationPConstant = 0,
+				rotationIConstant = 1,
+				spinThreshold = 2,
+				gyroCenter = 3,
+				disabledStoppingPoint = 4,
+				button5StoppingPoint = 5,
+				button6StoppingPoint = 6,
+				button9StoppingPoint = 7,
+				button10StoppingPoint = 8,
+				catapultLoweringPower = 9,
+				catapultLoweringTime = 10,
+				autonomousLoweringPower = 11,
+				autonomousLoweringTime = 12,
+				ballSensorThreshold = 13,
+				collectorLoweringPower = 14,
+				collectorRaisingPower = 15,
+				collectorWaitForBallTime = 16,
+				collectorRaisingTime = 17,
+				manualRaiseUpPower = 18,
+				manualRaiseDownPower = 19,
+				assistedRaisePower = 20,
+				autonomousRollerPower = 21,
+				teleopRollerPower = 22,
+				catapultPredictiveCutoff = 23,
+				catapultCutoffLatency = 24,
+				catapultCoastDeceleration = 25,
+				ballSensorHysteresis = 26,
+				gyroCountsPerDegree = 27,
+				gyroBiasTimeConstant = 28,
+				headingHoldPConstant = 29,
+				headingHoldDConstant = 30;
+
+		static final int count = 31;
+
+		static final String[] names =
+		{
+			"rotationPConstant", "rotationIConstant", "spinThreshold",
+			"gyroCenter", "disabledStoppingPoint", "button5StoppingPoint",
+			"button6StoppingPoint", "button9StoppingPoint",
+			"button10StoppingPoint", "catapultLoweringPower",
+			"catapultLoweringTime", "autonomousLoweringPower",
+			"autonomousLoweringTime", "ballSensorThreshold",
+			"collectorLoweringPower", "collectorRaisingPower",
+			"collectorWaitForBallTime", "collectorRaisingTime",
+			"manualRaiseUpPower", "manualRaiseDownPower", "assistedRaisePower",
+			"autonomousRollerPower", "teleopRollerPower",
+			"catapultPredictiveCutoff", "catapultCutoffLatency",
+			"catapultCoastDeceleration", "ballSensorHysteresis",
+			"gyroCountsPerDegree", "gyroBiasTimeConstant",
+			"headingHoldPConstant", "headingHoldDConstant"
+		};
+
+		static final double[] defaults =
+		{
+			0.02, 0.002, 40,
+			476, 140, 69,
+			151, 100,
+			131, -0.07,
+			1.25, -0.3,
+			0.5, 300,
+			-0.4, 0.6,
+			0.3, 0.75,
+			0.45, -0.4, 0.3,
+			0.65, 1.0,
+			0, 0.005,
+			20000, 20,
+			0.5, 5.0,
+			0.03, 0.002
+		};
+	}
+
+	/**
+	 * @param hardware The hardware the settings file is read from
+	 * @param filename The name of the settings file
+	 */
+	Settings(Hardware hardware, String filename)
+	{
+		this.hardware = hardware;
+		clock = hardware.clock();
+		m_filename = filename;
+		parser = new SettingsParser(Key.names);
+		m_values = new double[Key.count];
+		for(int i = 0; i < Key.count; i++)
+		{
+			m_values[i] = Key.defaults[i];
+		}
+		m_lastCheckTime = -CHECKPERIOD;
+	}
+
+	/**
+	 * Reads and parses the settings file. Settings that are missing from the
+	 * file or whose lines can't be parsed keep their previous values.
+	 *
+	 * @return True if the file was read
+	 */
+	boolean load()
+	{
+		m_modifiedTime = hardware.getFileModified(m_filename);
+		InputStream input = null;
+		try
+		{
+			input = hardware.openFile(m_filename);
+			parser.parse(input, m_values, m_filename);
+		}
+		catch(IOException e)
+		{
+			System.out.println("Could not read " + m_filename
+					+ ", using the previous settings");
+			return false;
+		}
+		finally
+		{
+			try
+			{
+				if(input != null)
+				{
+					input.close();
+				}
+			}
+			catch(IOException ex)
+			{
+				ex.printStackTrace();
+			}
+		}
+		m_loaded = true;
+		return true;
+	}
+
+	/**
+	 * Reads the settings file again if its modification time has changed,
+	 * the time is only checked once every CHECKPERIOD. This should only be
+	 * called while the robot is disabled.
+	 *
+	 * @return True if the settings were read again
+	 */
+	boolean reloadIfChanged()
+	{
+		double time = clock.getTime();
+		if(time - m_lastCheckTime < CHECKPERIOD)
+		{
+			return false;
+		}
+		m_lastCheckTime = time;
+		long modifiedTime = hardware.getFileModified(m_filename);
+		if(modifiedTime == m_modifiedTime)
+		{
+			return false;
+		}
+		System.out.println(m_filename + " changed, reloading");
+		return load();
+	}
+
+	/**
+	 * @return True if the settings file has been read
+	 */
+	boolean isLoaded()
+	{
+		return m_loaded;
+	}
+
+	/**
+	 * @param key The setting from Settings.Key
+	 * @return The value of the setting
+	 */
+	double getDouble(int key)
+	{
+		return m_values[key];
+	}
+
+	/**
+	 * @param key The setting from Settings.Key
+	 * @return The value of the setting rounded to the nearest integer
+	 */
+	int getInt(int key)
+	{
+		return (int) Math.floor(m_values[key] + 0.5);
+	}
+
+	/**
+	 * Prints the value of every setting
+	 */
+	void print()
+	{
+		for(int i = 0; i < Key.count; i++)
+		{
+			System.out.println(Key.names[i] + "=" + m_values[i]);
+		}
+	}
+}
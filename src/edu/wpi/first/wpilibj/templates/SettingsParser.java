@@ -0,0 +1,326 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses "name=value" lines straight from the bytes of a settings file into
+ * an array of doubles. The names are matched and the numbers are parsed byte
+ * by byte in buffers that are allocated once, so no Strings are created for
+ * the lines. Lines that can't be parsed are reported with their line number.
+ */
+public class SettingsParser
+{
+	// The longest line that can be parsed, longer lines are reported
+	static final int MAXLINELENGTH = 128;
+	// The most digits that fit in a long without overflowing
+	static final int MAXDIGITS = 18;
+
+	byte[][] m_names;
+	byte[] m_readBuffer = new byte[256];
+	byte[] m_line = new byte[MAXLINELENGTH];
+	String m_source;
+	int m_errors;
+
+	/**
+	 * @param names The name of each setting, a setting's index in this array
+	 * is its index in the array of values
+	 */
+	SettingsParser(String[] names)
+	{
+		m_names = new byte[names.length][];
+		for(int i = 0; i < names.length; i++)
+		{
+			m_names[i] = names[i].getBytes();
+		}
+	}
+
+	/**
+	 * Reads the whole stream and sets the value of every setting it names.
+	 * Settings that aren't in the stream, or whose lines can't be parsed, keep
+	 * their previous values.
+	 *
+	 * @param input The stream to read the settings from
+	 * @param values The values of the settings, indexed the same way as the
+	 * names
+	 * @param source The name of the file, used in error messages
+	 * @return The number of lines that couldn't be parsed
+	 */
+	int parse(InputStream input, double[] values, String source)
+			throws IOException
+	{
+		m_source = source;
+		m_errors = 0;
+		int lineNumber = 1;
+		int lineLength = 0;
+		boolean lineTooLong = false;
+		int count;
+		while((count = input.read(m_readBuffer, 0, m_readBuffer.length)) > 0)
+		{
+			for(int i = 0; i < count; i++)
+			{
+				byte b = m_readBuffer[i];
+				if(b == '\n')
+				{
+					if(lineTooLong)
+					{
+						error(lineNumber, "line is too long");
+					}
+					else
+					{
+						parseLine(lineLength, values, lineNumber);
+					}
+					lineNumber++;
+					lineLength = 0;
+					lineTooLong = false;
+				}
+				else if(lineLength < MAXLINELENGTH)
+				{
+					m_line[lineLength++] = b;
+				}
+				else
+				{
+					lineTooLong = true;
+				}
+			}
+		}
+		if(lineTooLong)
+		{
+			error(lineNumber, "line is too long");
+		}
+		else if(lineLength > 0)
+		{
+			parseLine(lineLength, values, lineNumber);
+		}
+		return m_errors;
+	}
+
+	/**
+	 * Parses the line held in m_line, blank lines and lines starting with '#'
+	 * are skipped
+	 *
+	 * @param length The number of bytes in the line
+	 * @param values The values of the settings
+	 * @param lineNumber The number of the line, used in error messages
+	 */
+	void parseLine(int length, double[] values, int lineNumber)
+	{
+		int start = skipSpaces(0, length);
+		int end = trimSpaces(start, length);
+		if(start == end || m_line[start] == '#')
+		{
+			return;
+		}
+		int equals = start;
+		while(equals < end && m_line[equals] != '=')
+		{
+			equals++;
+		}
+		if(equals == end)
+		{
+			error(lineNumber, "expected name=value");
+			return;
+		}
+		int key = findName(start, trimSpaces(start, equals));
+		if(key < 0)
+		{
+			error(lineNumber, "unknown setting");
+			return;
+		}
+		double value = parseNumber(skipSpaces(equals + 1, end), end);
+		if(value != value)
+		{
+			error(lineNumber, "value is not a number");
+			return;
+		}
+		values[key] = value;
+	}
+
+	/**
+	 * @return The index of the first byte at or after start that isn't a space
+	 */
+	int skipSpaces(int start, int end)
+	{
+		while(start < end && isSpace(m_line[start]))
+		{
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * @return The index just past the last byte before end that isn't a space
+	 */
+	int trimSpaces(int start, int end)
+	{
+		while(end > start && isSpace(m_line[end - 1]))
+		{
+			end--;
+		}
+		return end;
+	}
+
+	static boolean isSpace(byte b)
+	{
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	/**
+	 * Compares the bytes of the line with each name
+	 *
+	 * @param start The index of the first byte of the name in the line
+	 * @param end The index just past the last byte of the name in the line
+	 * @return The index of the matching name, or -1 if none match
+	 */
+	int findName(int start, int end)
+	{
+		int length = end - start;
+		for(int i = 0; i < m_names.length; i++)
+		{
+			byte[] name = m_names[i];
+			if(name.length != length)
+			{
+				continue;
+			}
+			int j = 0;
+			while(j < length && name[j] == m_line[start + j])
+			{
+				j++;
+			}
+			if(j == length)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses a decimal number such as "-0.07", "40" or "2.5e-3" from the line
+	 *
+	 * @param start The index of the first byte of the number in the line
+	 * @param end The index just past the last byte of the number in the line
+	 * @return The number, or NaN if the bytes aren't a number
+	 */
+	double parseNumber(int start, int end)
+	{
+		int i = start;
+		boolean negative = false;
+		if(i < end && (m_line[i] == '-' || m_line[i] == '+'))
+		{
+			negative = m_line[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigits = false;
+		boolean pastPoint = false;
+		for(; i < end; i++)
+		{
+			byte b = m_line[i];
+			if(b >= '0' && b <= '9')
+			{
+				anyDigits = true;
+				if(digits < MAXDIGITS)
+				{
+					mantissa = mantissa * 10 + (b - '0');
+					if(mantissa != 0)
+					{
+						digits++;
+					}
+					if(pastPoint)
+					{
+						exponent--;
+					}
+				}
+				else if(!pastPoint)
+				{
+					// Digits past what a long holds only change the magnitude
+					exponent++;
+				}
+			}
+			else if(b == '.' && !pastPoint)
+			{
+				pastPoint = true;
+			}
+			else
+			{
+				break;
+			}
+		}
+		if(!anyDigits)
+		{
+			return Double.NaN;
+		}
+		if(i < end && (m_line[i] == 'e' || m_line[i] == 'E'))
+		{
+			i++;
+			boolean negativeExponent = false;
+			if(i < end && (m_line[i] == '-' || m_line[i] == '+'))
+			{
+				negativeExponent = m_line[i] == '-';
+				i++;
+			}
+			int written = 0;
+			int exponentDigits = 0;
+			for(; i < end && m_line[i] >= '0' && m_line[i] <= '9'; i++)
+			{
+				if(written < 1000)
+				{
+					written = written * 10 + (m_line[i] - '0');
+				}
+				exponentDigits++;
+			}
+			if(exponentDigits == 0)
+			{
+				return Double.NaN;
+			}
+			exponent += negativeExponent ? -written : written;
+		}
+		if(i != end)
+		{
+			return Double.NaN;
+		}
+		double value = mantissa;
+		// Dividing by an exact power of ten keeps values like 0.02 exact
+		if(exponent < 0)
+		{
+			value /= powerOfTen(-exponent);
+		}
+		else if(exponent > 0)
+		{
+			value *= powerOfTen(exponent);
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * @param exponent A positive power
+	 * @return Ten to the power
+	 */
+	static double powerOfTen(int exponent)
+	{
+		double result = 1;
+		double base = 10;
+		while(exponent > 0)
+		{
+			if((exponent & 1) != 0)
+			{
+				result *= base;
+			}
+			base *= base;
+			exponent >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Prints a parsing error with the file name and line number
+	 */
+	void error(int lineNumber, String message)
+	{
+		m_errors++;
+		System.out.println(m_source + ":" + lineNumber + ": " + message);
+	}
+}
@@ -0,0 +1,274 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the encoder count of the catapult every time its state machine runs,
+ * from when it fires until it zeroes, into buffers allocated up front. Each
+ * shot is then summarized by its peak velocity, overshoot past the stopping
+ * point, time from firing to the cut, time spent lowering and the time the
+ * arm actually took to come back down after the cut. The last HISTORY
+ * summaries are kept so the spread from shot to shot can be printed and
+ * written to a file while the robot is disabled.
+ */
+public class ShotRecorder
+{
+	// Samples kept for one shot, enough for 2.5 s at 200 Hz
+	static final int CAPACITY = 512;
+	// Number of shot summaries kept
+	static final int HISTORY = 32;
+	// The arm counts as back down within this many clicks of its zero
+	static final int SETTLEDCLICKS = 2;
+
+	int[] m_counts = new int[CAPACITY];
+	double[] m_times = new double[CAPACITY];
+	int m_length;
+	boolean m_recording;
+	double m_fireTime;
+	double m_cutoffTime;
+	double m_loweredTime;
+	int m_stoppingClicks;
+
+	double[] m_peakVelocities = new double[HISTORY];
+	int[] m_overshoots = new int[HISTORY];
+	double[] m_timesToCutoff = new double[HISTORY];
+	double[] m_loweringDurations = new double[HISTORY];
+	double[] m_settleDurations = new double[HISTORY];
+	int m_shots;
+	int m_exportedShots;
+
+	/**
+	 * @return True while a shot is being recorded
+	 */
+	boolean isRecording()
+	{
+		return m_recording;
+	}
+
+	/**
+	 * Starts recording a shot
+	 *
+	 * @param time The time the catapult fired
+	 */
+	void begin(double time)
+	{
+		m_recording = true;
+		m_length = 0;
+		m_fireTime = time;
+		m_cutoffTime = time;
+		m_loweredTime = time;
+	}
+
+	/**
+	 * Adds a sample to the shot, samples past the end of the buffers are
+	 * dropped
+	 *
+	 * @param time The time of the sample
+	 * @param count The encoder count
+	 */
+	void record(double time, int count)
+	{
+		if(m_recording && m_length < CAPACITY)
+		{
+			m_times[m_length] = time;
+			m_counts[m_length] = count;
+			m_length++;
+		}
+	}
+
+	/**
+	 * Marks when the motors were cut and where the arm should have stopped
+	 */
+	void markCutoff(double time, int stoppingClicks)
+	{
+		m_cutoffTime = time;
+		m_stoppingClicks = stoppingClicks;
+	}
+
+	/**
+	 * Marks when the arm finished lowering
+	 */
+	void markLowered(double time)
+	{
+		m_loweredTime = time;
+	}
+
+	/**
+	 * Stops recording without keeping the shot, such as when the robot is
+	 * disabled in the middle of it
+	 */
+	void cancel()
+	{
+		m_recording = false;
+	}
+
+	/**
+	 * Stops recording and adds the shot's summary to the history
+	 */
+	void finish()
+	{
+		if(!m_recording)
+		{
+			return;
+		}
+		m_recording = false;
+		int peak = 0;
+		double peakVelocity = 0;
+		double settledTime = m_loweredTime;
+		boolean settled = false;
+		for(int i = 0; i < m_length; i++)
+		{
+			if(m_counts[i] > peak)
+			{
+				peak = m_counts[i];
+			}
+			if(i > 0 && m_times[i] > m_times[i - 1])
+			{
+				double velocity = (m_counts[i] - m_counts[i - 1])
+						/ (m_times[i] - m_times[i - 1]);
+				if(velocity > peakVelocity)
+				{
+					peakVelocity = velocity;
+				}
+			}
+			if(!settled && m_times[i] > m_cutoffTime
+					&& m_counts[i] <= SETTLEDCLICKS)
+			{
+				settled = true;
+				settledTime = m_times[i];
+			}
+		}
+		int index = m_shots % HISTORY;
+		m_peakVelocities[index] = peakVelocity;
+		m_overshoots[index] = peak - m_stoppingClicks;
+		m_timesToCutoff[index] = m_cutoffTime - m_fireTime;
+		m_loweringDurations[index] = m_loweredTime - m_cutoffTime;
+		m_settleDurations[index] = settledTime - m_cutoffTime;
+		m_shots++;
+	}
+
+	/**
+	 * @return The number of shots summarized since the robot started
+	 */
+	int getShots()
+	{
+		return m_shots;
+	}
+
+	/**
+	 * @return The number of summaries held, at most HISTORY
+	 */
+	int getHistoryLength()
+	{
+		return m_shots < HISTORY ? m_shots : HISTORY;
+	}
+
+	/**
+	 * @param age 0 for the latest shot, 1 for the one before it and so on
+	 * @return The index of the shot's summary in the history arrays
+	 */
+	int getIndex(int age)
+	{
+		return (m_shots - 1 - age) % HISTORY;
+	}
+
+	/**
+	 * Prints the mean and standard deviation of each summary over the shots
+	 * in the history
+	 */
+	void printReport()
+	{
+		int length = getHistoryLength();
+		if(length == 0)
+		{
+			return;
+		}
+		double[] overshoots = new double[length];
+		for(int i = 0; i < length; i++)
+		{
+			overshoots[i] = m_overshoots[i];
+		}
+		System.out.println("Last " + length + " shots:");
+		printStatistic("peak velocity (clicks/s)", m_peakVelocities, length);
+		printStatistic("overshoot (clicks)", overshoots, length);
+		printStatistic("time to cutoff (s)", m_timesToCutoff, length);
+		printStatistic("lowering duration (s)", m_loweringDurations, length);
+		printStatistic("time to settle (s)", m_settleDurations, length);
+	}
+
+	void printStatistic(String name, double[] values, int length)
+	{
+		double sum = 0;
+		double max = values[0];
+		for(int i = 0; i < length; i++)
+		{
+			sum += values[i];
+			if(values[i] > max)
+			{
+				max = values[i];
+			}
+		}
+		double mean = sum / length;
+		double squares = 0;
+		for(int i = 0; i < length; i++)
+		{
+			squares += (values[i] - mean) * (values[i] - mean);
+		}
+		System.out.println("  " + name + ": mean " + mean + " sd "
+				+ Math.sqrt(squares / length) + " max " + max);
+	}
+
+	/**
+	 * Writes the summaries in the history to a file as comma separated values,
+	 * oldest first, if there have been shots since the last export
+	 *
+	 * @param hardware The hardware the file is created on
+	 * @param filename The name of the file, which is replaced
+	 */
+	void export(Hardware hardware, String filename)
+	{
+		if(m_shots == m_exportedShots)
+		{
+			return;
+		}
+		StringBuffer text = new StringBuffer();
+		text.append("shot,peakVelocity,overshoot,timeToCutoff,"
+				+ "loweringDuration,settleDuration\n");
+		for(int age = getHistoryLength() - 1; age >= 0; age--)
+		{
+			int index = getIndex(age);
+			text.append(m_shots - age).append(',');
+			text.append(m_peakVelocities[index]).append(',');
+			text.append(m_overshoots[index]).append(',');
+			text.append(m_timesToCutoff[index]).append(',');
+			text.append(m_loweringDurations[index]).append(',');
+			text.append(m_settleDurations[index]).append('\n');
+		}
+		OutputStream output = null;
+		try
+		{
+			output = hardware.createFile(filename);
+			output.write(text.toString().getBytes());
+			m_exportedShots = m_shots;
+		}
+		catch(IOException e)
+		{
+			System.out.println("Could not write " + filename);
+		}
+		finally
+		{
+			try
+			{
+				if(output != null)
+				{
+					output.close();
+				}
+			}
+			catch(IOException ex)
+			{
+				ex.printStackTrace();
+			}
+		}
+	}
+}
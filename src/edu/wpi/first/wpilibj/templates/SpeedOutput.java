@@ -0,0 +1,22 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A motor controller that accepts a power from -1.0 to 1.0, implemented by a
+ * Talon on the robot and by an in-memory value in simulation
+ */
+public interface SpeedOutput
+{
+	/**
+	 * Sets the power of the motor controller
+	 *
+	 * @param power A number from -1.0 to 1.0 for the power of the motor
+	 */
+	void set(double power);
+
+	/**
+	 * Gets the power the motor controller was last set to
+	 *
+	 * @return The last power that was set, from -1.0 to 1.0
+	 */
+	double get();
+}
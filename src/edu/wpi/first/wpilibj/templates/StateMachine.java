@@ -0,0 +1,333 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Runs a state machine declared as tables instead of a switch, so every state
+ * machine on the robot is timed and traced the same way. Each state may have a
+ * timeout after which it moves to another state, and a list of transitions
+ * that are taken as soon as their guard holds. The guards and what each state
+ * does are supplied by a Behavior, and are identified by the int constants the
+ * subsystem already uses. Every transition is recorded in a ring buffer along
+ * with what caused it, and the time spent in each state is added up so the
+ * states that take the longest can be found. Nothing is allocated once the
+ * tables are declared.
+ */
+public class StateMachine
+{
+	// Number of transitions kept in the trace
+	static final int TRACELENGTH = 32;
+	// A guard that always holds, and the causes of transitions that aren't
+	// guards, as recorded in the trace
+	public static final int ALWAYS = -1,
+			TIMEOUT = -2,
+			COMMAND = -3;
+
+	/**
+	 * Supplies the guard conditions and the work done in each state
+	 */
+	public interface Behavior
+	{
+		/**
+		 * @param machine The state machine whose guard is checked
+		 * @param guard The guard's constant
+		 * @return True if the transition the guard is on should be taken
+		 */
+		boolean check(StateMachine machine, int guard);
+
+		/**
+		 * Called once when a state is entered
+		 *
+		 * @param machine The state machine that changed state
+		 * @param state The state entered
+		 * @param time The time the state was entered
+		 */
+		void enter(StateMachine machine, int state, double time);
+
+		/**
+		 * Called each update that the state doesn't time out
+		 *
+		 * @param machine The state machine being updated
+		 * @param state The current state
+		 */
+		void run(StateMachine machine, int state);
+	}
+
+	String name;
+	String[] stateNames;
+	String[] guardNames;
+	Clock clock;
+	Behavior behavior;
+
+	int m_state;
+	double m_enteredTime;
+
+	// The timeout of each state, none if it is 0, and the state it moves to
+	double[] m_timeouts;
+	int[] m_timeoutStates;
+
+	// Transitions out of a state are checked in the order they were added
+	int[] m_transitionFrom;
+	int[] m_transitionGuards;
+	int[] m_transitionTo;
+	int m_transitionCount;
+
+	int[] m_entries;
+	double[] m_totalDwell;
+	double[] m_maxDwell;
+
+	double[] m_traceTimes = new double[TRACELENGTH];
+	int[] m_traceFrom = new int[TRACELENGTH];
+	int[] m_traceTo = new int[TRACELENGTH];
+	int[] m_traceCauses = new int[TRACELENGTH];
+	int m_traced;
+
+	/**
+	 * @param name The name of the state machine, used in the reports
+	 * @param stateNames The name of each state, indexed by its constant
+	 * @param guardNames The name of each guard, indexed by its constant
+	 * @param maxTransitions The most transitions that will be added
+	 * @param clock The clock the states are timed with, updates use its time
+	 * @param behavior The guards and the work done in each state
+	 * @param initialState The state the machine starts in
+	 */
+	StateMachine(String name, String[] stateNames, String[] guardNames,
+			int maxTransitions, Clock clock, Behavior behavior,
+			int initialState)
+	{
+		this.name = name;
+		this.stateNames = stateNames;
+		this.guardNames = guardNames;
+		this.clock = clock;
+		this.behavior = behavior;
+		int states = stateNames.length;
+		m_timeouts = new double[states];
+		m_timeoutStates = new int[states];
+		m_transitionFrom = new int[maxTransitions];
+		m_transitionGuards = new int[maxTransitions];
+		m_transitionTo = new int[maxTransitions];
+		m_entries = new int[states];
+		m_totalDwell = new double[states];
+		m_maxDwell = new double[states];
+		m_state = initialState;
+		m_enteredTime = clock.getTime();
+	}
+
+	/**
+	 * Adds a transition that is taken when its guard holds
+	 *
+	 * @param from The state the transition leaves
+	 * @param guard The guard's constant, or ALWAYS
+	 * @param to The state the transition enters
+	 */
+	void addTransition(int from, int guard, int to)
+	{
+		m_transitionFrom[m_transitionCount] = from;
+		m_transitionGuards[m_transitionCount] = guard;
+		m_transitionTo[m_transitionCount] = to;
+		m_transitionCount++;
+	}
+
+	/**
+	 * Sets how long a state lasts, it can be changed at any time, such as when
+	 * the settings are reloaded
+	 *
+	 * @param state The state that times out
+	 * @param seconds The time from entering the state until it times out, 0
+	 * for never
+	 * @param to The state entered when it times out
+	 */
+	void setTimeout(int state, double seconds, int to)
+	{
+		m_timeouts[state] = seconds;
+		m_timeoutStates[state] = to;
+	}
+
+	/**
+	 * Moves to the state that the current one times out to if its time is up,
+	 * otherwise runs the current state and takes the first transition out of
+	 * it whose guard holds. The state entered doesn't run until the next
+	 * update.
+	 */
+	void update()
+	{
+		double time = clock.getTime();
+		double timeout = m_timeouts[m_state];
+		if(timeout > 0 && time >= m_enteredTime + timeout)
+		{
+			transition(m_timeoutStates[m_state], TIMEOUT, time);
+			return;
+		}
+		behavior.run(this, m_state);
+		for(int i = 0; i < m_transitionCount; i++)
+		{
+			if(m_transitionFrom[i] == m_state
+					&& (m_transitionGuards[i] == ALWAYS
+					|| behavior.check(this, m_transitionGuards[i])))
+			{
+				transition(m_transitionTo[i], m_transitionGuards[i], time);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Moves to a state on a command from outside the state machine, nothing
+	 * happens if it is already in the state
+	 *
+	 * @param state The state to enter
+	 */
+	void command(int state)
+	{
+		transition(state, COMMAND, clock.getTime());
+	}
+
+	/**
+	 * Moves to a state, recording the transition and the time spent in the
+	 * state left, nothing happens if it is already in the state
+	 *
+	 * @param state The state to enter
+	 * @param cause The guard that held, TIMEOUT or COMMAND
+	 * @param time The time of the transition, which may be later than the
+	 * clock's for an event seen between loops
+	 */
+	void transition(int state, int cause, double time)
+	{
+		if(state == m_state)
+		{
+			return;
+		}
+		double dwell = time - m_enteredTime;
+		m_entries[m_state]++;
+		m_totalDwell[m_state] += dwell;
+		if(dwell > m_maxDwell[m_state])
+		{
+			m_maxDwell[m_state] = dwell;
+		}
+		int index = m_traced % TRACELENGTH;
+		m_traceTimes[index] = time;
+		m_traceFrom[index] = m_state;
+		m_traceTo[index] = state;
+		m_traceCauses[index] = cause;
+		m_traced++;
+		m_state = state;
+		m_enteredTime = time;
+		behavior.enter(this, state, time);
+	}
+
+	/**
+	 * Puts the state machine in a state without recording a transition or
+	 * entering it, such as when autonomous starts over
+	 *
+	 * @param state The state the machine is now in
+	 */
+	void reset(int state)
+	{
+		m_state = state;
+		m_enteredTime = clock.getTime();
+	}
+
+	/**
+	 * @return The current state
+	 */
+	int getState()
+	{
+		return m_state;
+	}
+
+	/**
+	 * @return The time in seconds since the current state was entered
+	 */
+	double getTimeInState()
+	{
+		return clock.getTime() - m_enteredTime;
+	}
+
+	/**
+	 * @param state The state to look up
+	 * @return The average time in seconds the state lasted, from when it was
+	 * entered until it was left
+	 */
+	double getAverageDwell(int state)
+	{
+		if(m_entries[state] == 0)
+		{
+			return 0;
+		}
+		return m_totalDwell[state] / m_entries[state];
+	}
+
+	/**
+	 * Prints the number of times each state was left, how long it lasted on
+	 * average and at most, and the share of the time it took
+	 */
+	void printReport()
+	{
+		double total = 0;
+		for(int i = 0; i < m_totalDwell.length; i++)
+		{
+			total += m_totalDwell[i];
+		}
+		if(total <= 0)
+		{
+			return;
+		}
+		System.out.println(name + " states:");
+		for(int i = 0; i < m_entries.length; i++)
+		{
+			if(m_entries[i] > 0)
+			{
+				System.out.println("  " + stateNames[i] + ": " + m_entries[i]
+						+ " times, mean " + getAverageDwell(i) + " s, max "
+						+ m_maxDwell[i] + " s, "
+						+ (int) (100 * m_totalDwell[i] / total) + "%");
+			}
+		}
+	}
+
+	/**
+	 * Prints the transitions in the trace, oldest first
+	 */
+	void printTrace()
+	{
+		int length = m_traced < TRACELENGTH ? m_traced : TRACELENGTH;
+		System.out.println(name + " transitions:");
+		for(int age = length - 1; age >= 0; age--)
+		{
+			int index = (m_traced - 1 - age) % TRACELENGTH;
+			System.out.println("  " + m_traceTimes[index] + " s: "
+					+ stateNames[m_traceFrom[index]] + " -> "
+					+ stateNames[m_traceTo[index]] + " ("
+					+ getCauseName(m_traceCauses[index]) + ")");
+		}
+	}
+
+	String getCauseName(int cause)
+	{
+		switch(cause)
+		{
+			case ALWAYS:
+				return "always";
+
+			case TIMEOUT:
+				return "timeout";
+
+			case COMMAND:
+				return "command";
+
+			default:
+				return guardNames[cause];
+		}
+	}
+
+	/**
+	 * Clears the dwell statistics, the trace is kept
+	 */
+	void resetStatistics()
+	{
+		for(int i = 0; i < m_entries.length; i++)
+		{
+			m_entries[i] = 0;
+			m_totalDwell[i] = 0;
+			m_maxDwell[i] = 0;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * A ring buffer of fixed-size telemetry samples that is allocated up front.
+ * The robot loop is the only thread that writes samples and the telemetry
+ * writer is the only thread that reads them, so no locks are needed: each
+ * side only moves its own index forward. When the buffer is full the newest
+ * sample is dropped instead of making the robot loop wait, and the number
+ * dropped so far is stored in each sample so gaps can be found in the log.
+ */
+public class TelemetryBuffer
+{
+	int m_capacity;
+	int[] m_ints;
+	double[] m_doubles;
+	// Total samples written and read, the slot is the count modulo capacity
+	volatile int m_writeCount;
+	volatile int m_readCount;
+	int m_dropped;
+
+	/**
+	 * Holds the index of each integer field in a sample
+	 */
+	public static class IntField
+	{
+		public static final int mode = 0,
+				catapultState = 1,
+				collectorMode = 2,
+				collectorSubstate = 3,
+				encoder = 4,
+				gyro = 5,
+				ultrasonic = 6,
+				ballSensor = 7,
+				lowerLimit = 8,
+				buttons = 9,
+				digitalInputs = 10,
+				dropped = 11,
+				collectorEdges = 12;
+
+		static final int count = 13;
+
+		static final String[] names =
+		{
+			"mode", "catapultState", "collectorMode", "collectorSubstate",
+			"encoder", "gyro", "ultrasonic", "ballSensor", "lowerLimit",
+			"buttons", "digitalInputs", "dropped", "collectorEdges"
+		};
+	}
+
+	/**
+	 * Holds the index of each decimal field in a sample
+	 */
+	public static class DoubleField
+	{
+		public static final int time = 0,
+				loopTime = 1,
+				xAxis = 2,
+				yAxis = 3,
+				twistAxis = 4,
+				rollerAxis = 5,
+				raiseAxis = 6,
+				leftFrontMotor = 7,
+				leftRearMotor = 8,
+				rightFrontMotor = 9,
+				rightRearMotor = 10,
+				catapultOneMotor = 11,
+				catapultTwoMotor = 12,
+				liftingMotor = 13,
+				rollerMotor = 14,
+				encoderRate = 15,
+				limitEdgeTime = 16,
+				ballEdgeTime = 17,
+				heading = 18,
+				gyroBias = 19,
+				gyroRate = 20;
+
+		static final int count = 21;
+
+		static final String[] names =
+		{
+			"time", "loopTime", "xAxis", "yAxis", "twistAxis", "rollerAxis",
+			"raiseAxis", "leftFrontMotor", "leftRearMotor", "rightFrontMotor",
+			"rightRearMotor", "catapultOneMotor", "catapultTwoMotor",
+			"liftingMotor", "rollerMotor", "encoderRate", "limitEdgeTime",
+			"ballEdgeTime", "heading", "gyroBias", "gyroRate"
+		};
+	}
+
+	/**
+	 * @param capacity The number of samples the buffer holds
+	 */
+	TelemetryBuffer(int capacity)
+	{
+		m_capacity = capacity;
+		m_ints = new int[capacity * IntField.count];
+		m_doubles = new double[capacity * DoubleField.count];
+	}
+
+	/**
+	 * Gets the slot the next sample should be written into, called from the
+	 * robot loop
+	 *
+	 * @return The slot to write, or -1 if the buffer is full
+	 */
+	int claim()
+	{
+		if(m_writeCount - m_readCount >= m_capacity)
+		{
+			m_dropped++;
+			return -1;
+		}
+		return m_writeCount % m_capacity;
+	}
+
+	/**
+	 * Sets an integer field of a claimed slot
+	 */
+	void setInt(int slot, int field, int value)
+	{
+		m_ints[slot * IntField.count + field] = value;
+	}
+
+	/**
+	 * Sets a decimal field of a claimed slot
+	 */
+	void setDouble(int slot, int field, double value)
+	{
+		m_doubles[slot * DoubleField.count + field] = value;
+	}
+
+	/**
+	 * Makes the claimed slot visible to the reader, called from the robot loop
+	 * after all of the slot's fields are set
+	 */
+	void publish()
+	{
+		m_writeCount++;
+	}
+
+	/**
+	 * @return The number of samples waiting to be read
+	 */
+	int available()
+	{
+		return m_writeCount - m_readCount;
+	}
+
+	/**
+	 * @return The slot of the oldest sample waiting to be read
+	 */
+	int peek()
+	{
+		return m_readCount % m_capacity;
+	}
+
+	int getInt(int slot, int field)
+	{
+		return m_ints[slot * IntField.count + field];
+	}
+
+	double getDouble(int slot, int field)
+	{
+		return m_doubles[slot * DoubleField.count + field];
+	}
+
+	/**
+	 * Frees the oldest sample's slot for the robot loop to reuse, called from
+	 * the writer after the sample has been read
+	 */
+	void release()
+	{
+		m_readCount++;
+	}
+
+	/**
+	 * @return The number of samples dropped because the buffer was full
+	 */
+	int getDropped()
+	{
+		return m_dropped;
+	}
+}
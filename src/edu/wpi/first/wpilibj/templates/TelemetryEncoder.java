@@ -0,0 +1,185 @@
+package edu.wpi.first.wpilibj.templates;
+
+/**
+ * Encodes telemetry samples as the difference from the previous sample, so
+ * the fields that don't change from loop to loop take almost no space.
+ *
+ * The file starts with the bytes "FRCT", a version byte, the number of
+ * integer and decimal fields in each sample and the keyframe interval. Each
+ * record starts with a type byte. A keyframe ('K') holds every field compared
+ * against zero, so a reader can start decoding from any keyframe. A delta
+ * ('D') holds a varint bitmask of the fields that changed, with integer fields
+ * first and decimal fields after them, followed by only the changed fields.
+ *
+ * Integer fields are written as zigzag varints of the difference from the
+ * previous value. The time, the loop time and the collector's edge times are
+ * written the same way after converting them to whole microseconds. Every
+ * other decimal field is stored as a float, so it keeps only about 7
+ * significant digits, and written as a varint of its bits XORed with the
+ * previous bits. A field that repeats costs nothing and one that changes
+ * comes back as exactly the float that was written.
+ */
+public class TelemetryEncoder
+{
+	static final int VERSION = 2;
+	static final int KEYFRAME = 'K';
+	static final int DELTA = 'D';
+	// A keyframe is written after this many deltas
+	static final int KEYFRAMEINTERVAL = 50;
+	static final int FIELDS = TelemetryBuffer.IntField.count
+			+ TelemetryBuffer.DoubleField.count;
+	// The type byte, the bitmask and every field at its longest varint
+	static final int MAXRECORDBYTES = 1 + 5 + FIELDS * 10;
+	static final int HEADERBYTES = 8;
+
+	long[] m_previous = new long[FIELDS];
+	long[] m_current = new long[FIELDS];
+	int m_deltasSinceKeyframe = KEYFRAMEINTERVAL;
+
+	/**
+	 * Makes the next sample a keyframe, such as at the start of a new file
+	 */
+	void restart()
+	{
+		m_deltasSinceKeyframe = KEYFRAMEINTERVAL;
+	}
+
+	/**
+	 * Writes the file header
+	 *
+	 * @param out The array to write into
+	 * @param offset The index to start writing at
+	 * @return The index just past the header
+	 */
+	int writeHeader(byte[] out, int offset)
+	{
+		out[offset++] = 'F';
+		out[offset++] = 'R';
+		out[offset++] = 'C';
+		out[offset++] = 'T';
+		out[offset++] = VERSION;
+		out[offset++] = TelemetryBuffer.IntField.count;
+		out[offset++] = TelemetryBuffer.DoubleField.count;
+		out[offset++] = KEYFRAMEINTERVAL;
+		return offset;
+	}
+
+	/**
+	 * Encodes one sample from the buffer, as a keyframe if enough deltas have
+	 * been written since the last one
+	 *
+	 * @param buffer The buffer holding the sample
+	 * @param slot The slot of the sample in the buffer
+	 * @param out The array to write into, with at least MAXRECORDBYTES free
+	 * @param offset The index to start writing at
+	 * @return The index just past the record
+	 */
+	int encode(TelemetryBuffer buffer, int slot, byte[] out, int offset)
+	{
+		for(int i = 0; i < TelemetryBuffer.IntField.count; i++)
+		{
+			m_current[i] = buffer.getInt(slot, i);
+		}
+		for(int i = 0; i < TelemetryBuffer.DoubleField.count; i++)
+		{
+			m_current[TelemetryBuffer.IntField.count + i]
+					= toBits(i, buffer.getDouble(slot, i));
+		}
+		boolean keyframe = m_deltasSinceKeyframe >= KEYFRAMEINTERVAL;
+		if(keyframe)
+		{
+			m_deltasSinceKeyframe = 0;
+			for(int i = 0; i < FIELDS; i++)
+			{
+				m_previous[i] = 0;
+			}
+			out[offset++] = KEYFRAME;
+		}
+		else
+		{
+			m_deltasSinceKeyframe++;
+			long changed = 0;
+			for(int i = 0; i < FIELDS; i++)
+			{
+				if(m_current[i] != m_previous[i])
+				{
+					changed |= 1L << i;
+				}
+			}
+			out[offset++] = DELTA;
+			offset = writeVarint(changed, out, offset);
+		}
+		for(int i = 0; i < FIELDS; i++)
+		{
+			if(keyframe || m_current[i] != m_previous[i])
+			{
+				offset = writeVarint(difference(i, m_current[i],
+						m_previous[i]), out, offset);
+			}
+			m_previous[i] = m_current[i];
+		}
+		return offset;
+	}
+
+	/**
+	 * @param field The decimal field from TelemetryBuffer.DoubleField
+	 * @param value The value of the field
+	 * @return The field as whole microseconds for the times, or as the bits of
+	 * a float for everything else
+	 */
+	static long toBits(int field, double value)
+	{
+		if(isTime(field))
+		{
+			return (long) Math.floor(value * 1000000 + 0.5);
+		}
+		return Float.floatToIntBits((float) value) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @param field The decimal field from TelemetryBuffer.DoubleField
+	 * @return True if the field is stored as whole microseconds
+	 */
+	static boolean isTime(int field)
+	{
+		return field == TelemetryBuffer.DoubleField.time
+				|| field == TelemetryBuffer.DoubleField.loopTime
+				|| field == TelemetryBuffer.DoubleField.limitEdgeTime
+				|| field == TelemetryBuffer.DoubleField.ballEdgeTime;
+	}
+
+	/**
+	 * @param index The index of the field, integer fields first
+	 * @param current The field's value now
+	 * @param previous The field's value in the previous record
+	 * @return The unsigned number to write for the field
+	 */
+	static long difference(int index, long current, long previous)
+	{
+		int doubleField = index - TelemetryBuffer.IntField.count;
+		if(doubleField >= 0 && !isTime(doubleField))
+		{
+			return current ^ previous;
+		}
+		long delta = current - previous;
+		// Zigzag puts small negative numbers next to small positive ones
+		return (delta << 1) ^ (delta >> 63);
+	}
+
+	/**
+	 * Writes a number 7 bits at a time, lowest bits first, with the high bit
+	 * of each byte set if more bytes follow
+	 *
+	 * @return The index just past the number
+	 */
+	static int writeVarint(long value, byte[] out, int offset)
+	{
+		while((value & ~0x7FL) != 0)
+		{
+			out[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out[offset++] = (byte) value;
+		return offset;
+	}
+}
@@ -0,0 +1,211 @@
+package edu.wpi.first.wpilibj.templates;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Drains a TelemetryBuffer into a binary file on the cRIO's flash from a low
+ * priority thread, so the robot loop never waits on the file system. The
+ * samples are compressed by a TelemetryEncoder. The logs take turns in
+ * MAXFILES files, each new one replacing the oldest, and a log that reaches
+ * MAXFILEBYTES is continued in the next, so they can never fill the flash.
+ */
+public class TelemetryWriter implements Runnable
+{
+	// Time in milliseconds the thread sleeps between drains of the buffer
+	static final int DRAINPERIOD = 100;
+	// Records are collected into a chunk this big before being written
+	static final int CHUNKBYTES = 4096;
+	// Number of log files kept on the flash
+	static final int MAXFILES = 8;
+	// Size in bytes at which a log is continued in a new file
+	static final int MAXFILEBYTES = 4 * 1024 * 1024;
+
+	Hardware hardware;
+	TelemetryBuffer buffer;
+	OutputStream output;
+	Thread thread;
+	TelemetryEncoder encoder = new TelemetryEncoder();
+
+	byte[] m_chunk = new byte[CHUNKBYTES];
+	int m_chunkLength;
+	int m_fileBytes;
+	volatile boolean m_running;
+	boolean m_failed;
+	String m_filename;
+
+	/**
+	 * @param hardware The hardware the log file is created on
+	 * @param buffer The buffer the robot loop records samples into
+	 */
+	TelemetryWriter(Hardware hardware, TelemetryBuffer buffer)
+	{
+		this.hardware = hardware;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Creates a new log file and writes the header. The files are named
+	 * telemetry0.bin up to telemetry7.bin, and the one not written for the
+	 * longest, or one that doesn't exist yet, is replaced.
+	 *
+	 * @return True if the file was created
+	 */
+	boolean open()
+	{
+		int oldest = 0;
+		long oldestTime = Long.MAX_VALUE;
+		for(int number = 0; number < MAXFILES; number++)
+		{
+			long time = hardware.getFileModified(getFilename(number));
+			if(time < oldestTime)
+			{
+				oldest = number;
+				oldestTime = time;
+			}
+		}
+		m_filename = getFilename(oldest);
+		try
+		{
+			output = hardware.createFile(m_filename);
+			m_fileBytes = 0;
+			m_chunkLength = encoder.writeHeader(m_chunk, 0);
+			writeChunk();
+		}
+		catch(IOException e)
+		{
+			System.out.println("Could not create " + m_filename);
+			m_failed = true;
+			return false;
+		}
+		return true;
+	}
+
+	String getFilename(int number)
+	{
+		return "telemetry" + number + ".bin";
+	}
+
+	/**
+	 * Opens the log file and starts the low priority thread that writes to it
+	 */
+	void start()
+	{
+		if(!open())
+		{
+			return;
+		}
+		m_running = true;
+		thread = new Thread(this);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Stops the thread after it writes the samples left in the buffer
+	 */
+	void stop()
+	{
+		m_running = false;
+	}
+
+	public void run()
+	{
+		while(m_running)
+		{
+			drain();
+			try
+			{
+				Thread.sleep(DRAINPERIOD);
+			}
+			catch(InterruptedException e)
+			{
+			}
+		}
+		drain();
+		close();
+	}
+
+	/**
+	 * Writes every sample waiting in the buffer to the file, samples are
+	 * still released if the file can't be written so the buffer doesn't fill
+	 */
+	void drain()
+	{
+		while(buffer.available() > 0)
+		{
+			if(!m_failed && m_fileBytes + m_chunkLength
+					+ TelemetryEncoder.MAXRECORDBYTES > MAXFILEBYTES)
+			{
+				continueInNewFile();
+			}
+			if(!m_failed)
+			{
+				m_chunkLength = encoder.encode(buffer, buffer.peek(), m_chunk,
+						m_chunkLength);
+			}
+			buffer.release();
+			if(m_chunkLength > m_chunk.length
+					- TelemetryEncoder.MAXRECORDBYTES)
+			{
+				writeChunk();
+			}
+		}
+		writeChunk();
+	}
+
+	/**
+	 * Closes the log file once it is full and carries on in the next one,
+	 * which starts with a keyframe so it can be read on its own
+	 */
+	void continueInNewFile()
+	{
+		writeChunk();
+		close();
+		encoder.restart();
+		open();
+	}
+
+	/**
+	 * Writes the chunk to the file and flushes it to the flash
+	 */
+	void writeChunk()
+	{
+		if(m_chunkLength == 0 || m_failed)
+		{
+			m_chunkLength = 0;
+			return;
+		}
+		try
+		{
+			output.write(m_chunk, 0, m_chunkLength);
+			output.flush();
+			m_fileBytes += m_chunkLength;
+		}
+		catch(IOException e)
+		{
+			System.out.println("Could not write " + m_filename
+					+ ", telemetry stopped");
+			m_failed = true;
+		}
+		m_chunkLength = 0;
+	}
+
+	/**
+	 * Closes the log file
+	 */
+	void close()
+	{
+		try
+		{
+			if(output != null)
+			{
+				output.close();
+			}
+		}
+		catch(IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+}